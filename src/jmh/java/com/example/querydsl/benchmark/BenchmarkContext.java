@@ -0,0 +1,71 @@
+package com.example.querydsl.benchmark;
+
+import com.example.querydsl.QuerydslApplication;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberJpaRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 - 내장 H2에 teams개 팀, members명 회원을 저장해 둔다
+ * (팀 이름 team0 ~ team{teams-1}, 회원 나이 0 ~ 99)
+ */
+public class BenchmarkContext implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    // properties - 벤치마크별 추가 설정 ex) "--querydsl.count-cache.max-size=0"
+    public BenchmarkContext(int members, int teams, String... properties) {
+        SpringApplication application = new SpringApplication(QuerydslApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type=warn",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--decorator.datasource.p6spy.enable-logging=false"));
+        args.addAll(List.of(properties));
+        this.context = application.run(args.toArray(new String[0]));
+        seed(members, teams);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(int members, int teams) {
+        EntityManager em = getBean(EntityManager.class);
+        MemberJpaRepository memberJpaRepository = getBean(MemberJpaRepository.class);
+        new TransactionTemplate(getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            List<Team> savedTeams = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                savedTeams.add(team);
+            }
+            memberJpaRepository.saveAll(() -> IntStream.range(0, members)
+                    .mapToObj(i -> {
+                        Member member = new Member("member" + i, i % 100);
+                        member.setTeam(savedTeams.get(i % teams));
+                        return member;
+                    })
+                    .iterator());
+        });
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.example.querydsl.benchmark;
+
+import com.example.querydsl.dto.MemberDto;
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.dto.QMemberDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.repository.MemberJpaRepository;
+import com.example.querydsl.repository.MemberRepository;
+import com.example.querydsl.repository.support.FastProjections;
+import com.example.querydsl.repository.support.MemberTestRepository;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+import static org.springframework.util.StringUtils.isEmpty;
+
+/**
+ * 같은 회원 검색을 구현한 방식별 비용 비교
+ * - 조건 생성만 (BooleanBuilder vs where 파라미터)
+ * - JPQL 직렬화만
+ * - 실제 조회 (리포지토리별, 프로젝션 방식별)
+ * - DTO 생성만 (Projections vs FastProjections, 로우 하나 매핑 비용)
+ *
+ * ./gradlew jmh -Pjmh.includes=MemberSearchBenchmark
+ */
+@State(Scope.Benchmark)
+public class MemberSearchBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"100"})
+    int teams;
+
+    private BenchmarkContext context;
+    private JPAQueryFactory queryFactory;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private MemberTestRepository memberTestRepository;
+    private MemberSearchCondition condition;
+    private Object[] row;
+
+    @Setup
+    public void setUp() {
+        context = new BenchmarkContext(members, teams);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberTestRepository = context.getBean(MemberTestRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team7");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+        row = new Object[]{"member1", 10};
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // 조건 생성 - BooleanBuilder
+    @Benchmark
+    public Predicate predicateBooleanBuilder() {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(condition.getUserName())) {
+            builder.and(member.username.eq(condition.getUserName()));
+        }
+        if (hasText(condition.getTeamName())) {
+            builder.and(team.name.eq(condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            builder.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            builder.and(member.age.loe(condition.getAgeLoe()));
+        }
+        return builder;
+    }
+
+    // 조건 생성 - where 파라미터
+    @Benchmark
+    public Predicate[] predicateWhereParams() {
+        return whereParams();
+    }
+
+    // JPQL 직렬화
+    @Benchmark
+    public String serializeJpql() {
+        return searchQuery().toString();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpaRepositorySearchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpaRepositorySearch() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> customRepositorySearch() {
+        return memberRepository.search(condition);
+    }
+
+    @Benchmark
+    public Page<Member> supportRepositoryApplyPagination() {
+        return memberTestRepository.applyPagination2(condition, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionBean() {
+        return dtoQuery(Projections.bean(MemberDto.class, member.username, member.age)).fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionFields() {
+        return dtoQuery(Projections.fields(MemberDto.class, member.username, member.age)).fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionConstructor() {
+        return dtoQuery(Projections.constructor(MemberDto.class, member.username, member.age)).fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionQueryProjection() {
+        return dtoQuery(new QMemberDto(member.username, member.age)).fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fastProjectionBean() {
+        return dtoQuery(FastProjections.bean(MemberDto.class, member.username, member.age)).fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fastProjectionFields() {
+        return dtoQuery(FastProjections.fields(MemberDto.class, member.username, member.age)).fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fastProjectionConstructor() {
+        return dtoQuery(FastProjections.constructor(MemberDto.class, member.username, member.age)).fetch();
+    }
+
+    // 로우 매핑만 - DB 조회 시간을 빼고 비교
+    @Benchmark
+    public MemberDto mapRowBean() {
+        return Projections.bean(MemberDto.class, member.username, member.age).newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto mapRowFields() {
+        return Projections.fields(MemberDto.class, member.username, member.age).newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto mapRowConstructor() {
+        return Projections.constructor(MemberDto.class, member.username, member.age).newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto mapRowFastBean() {
+        return FastProjections.bean(MemberDto.class, member.username, member.age).newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto mapRowFastFields() {
+        return FastProjections.fields(MemberDto.class, member.username, member.age).newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto mapRowFastConstructor() {
+        return FastProjections.constructor(MemberDto.class, member.username, member.age).newInstance(row);
+    }
+
+    private JPAQuery<MemberTeamDto> searchQuery() {
+        return queryFactory
+                .select(Projections.constructor(MemberTeamDto.class,
+                        member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(whereParams());
+    }
+
+    private JPAQuery<MemberDto> dtoQuery(Expression<MemberDto> projection) {
+        return queryFactory
+                .select(projection)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(whereParams());
+    }
+
+    private Predicate[] whereParams() {
+        return new Predicate[]{
+                usernameEq(condition.getUserName()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())};
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return isEmpty(username) ? null : member.username.eq(username);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : member.age.goe(ageGoe);
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : member.age.loe(ageLoe);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.example.querydsl.benchmark;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.repository.support.MemberTestRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+/**
+ * 필터 결과가 큰 검색(나이 20 ~ 59, 전체의 40%)에서 Page(컨텐츠 + 카운트) vs Slice(컨텐츠 size + 1개)
+ * 카운트 캐시는 끄고(max-size=0) 비교
+ *
+ * ./gradlew jmh -Pjmh.includes=SlicePaginationBenchmark
+ */
+@State(Scope.Benchmark)
+public class SlicePaginationBenchmark {
+
+    @Param({"100000", "1000000"})
+    int members;
+
+    @Param({"100"})
+    int teams;
+
+    @Param({"0", "50"})
+    int page;
+
+    private BenchmarkContext context;
+    private MemberTestRepository memberTestRepository;
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        context = new BenchmarkContext(members, teams, "--querydsl.count-cache.max-size=0");
+        memberTestRepository = context.getBean(MemberTestRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(59);
+        pageable = PageRequest.of(page, 20, Sort.by("id"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Member> pageWithCount() {
+        return memberTestRepository.searchPageByApplyPage(condition, pageable);
+    }
+
+    @Benchmark
+    public Slice<Member> sliceWithoutCount() {
+        return memberTestRepository.searchSliceByPage(condition, pageable);
+    }
+
+}
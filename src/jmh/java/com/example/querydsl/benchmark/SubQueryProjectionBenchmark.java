@@ -0,0 +1,112 @@
+package com.example.querydsl.benchmark;
+
+import com.example.querydsl.entity.QMember;
+import com.example.querydsl.repository.support.SubQueryProjectionRewriter;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.querydsl.entity.QMember.member;
+
+/**
+ * select 절 집계 서브쿼리 - 원래 쿼리 vs SubQueryProjectionRewriter (집계 한번 + 메모리 합치기)
+ * - uncorrelated : (username, 전체 평균 나이) 전체 회원
+ * - correlated   : (username, 팀 평균 나이) 앞 outerRows명 - 원래 쿼리는 로우마다 팀 회원(members / teams명)을 다시 읽는다
+ *   전체 회원으로 돌리면 1,000,000명에서 원래 쿼리가 끝나지 않으므로 바깥 로우를 제한해서 비교한다
+ * 한번 실행이 길어서 SingleShotTime으로 잰다
+ *
+ * ./gradlew jmh -Pjmh.includes=SubQueryProjectionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SubQueryProjectionBenchmark {
+
+    private static final QMember memberSub = new QMember("memberSub");
+
+    @Param({"10000", "100000", "1000000"})
+    int members;
+
+    @Param({"100"})
+    int teams;
+
+    @Param({"1000"})
+    int outerRows;
+
+    private BenchmarkContext context;
+    private JPAQueryFactory queryFactory;
+    private EntityManager em;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        context = new BenchmarkContext(members, teams);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        em = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Tuple> uncorrelatedOriginal() {
+        return readOnly.execute(status -> uncorrelated().fetch());
+    }
+
+    @Benchmark
+    public List<Tuple> uncorrelatedRewritten() {
+        return readOnly.execute(status -> SubQueryProjectionRewriter.fetch(em, uncorrelated()));
+    }
+
+    @Benchmark
+    public List<Tuple> correlatedOriginal() {
+        return readOnly.execute(status -> correlated().fetch());
+    }
+
+    @Benchmark
+    public List<Tuple> correlatedRewritten() {
+        return readOnly.execute(status -> SubQueryProjectionRewriter.fetch(em, correlated()));
+    }
+
+    private JPAQuery<Tuple> uncorrelated() {
+        return queryFactory
+                .select(member.username,
+                        JPAExpressions.select(memberSub.age.avg()).from(memberSub))
+                .from(member);
+    }
+
+    private JPAQuery<Tuple> correlated() {
+        return queryFactory
+                .select(member.username,
+                        JPAExpressions.select(memberSub.age.avg()).from(memberSub)
+                                .where(memberSub.team.eq(member.team)))
+                .from(member)
+                .orderBy(member.id.asc())
+                .limit(outerRows);
+    }
+
+}
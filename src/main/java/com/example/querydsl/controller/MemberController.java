@@ -1,39 +1,170 @@
 package com.example.querydsl.controller;
 
+import com.example.querydsl.datasource.PrimaryRoute;
+import com.example.querydsl.datasource.ReplicaLagMonitor;
 import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
 import com.example.querydsl.repository.MemberJpaRepository;
 import com.example.querydsl.repository.MemberRepository;
+import com.example.querydsl.repository.support.CountCache;
+import com.example.querydsl.repository.support.TableVersions;
+import com.example.querydsl.search.UsernamePrefixIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_AUTOCOMPLETE = 100;
+
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final TableVersions tableVersions;
+    private final UsernamePrefixIndex usernamePrefixIndex;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor; // querydsl.datasource.replica.enabled=true일 때만
 
-    // GET /v1/members?teamName=teamB&ageGoe=20
+    // GET /v1/members?teamName=team1&ageGoe=20
+    // v1 ~ v3, v5 : If-None-Match가 현재 ETag와 같으면 조회 없이 304
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) { // query param
-        return memberRepository.search(condition);
+    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, WebRequest request) { // query param
+        if (notModified(request, "v1", condition, null)) {
+            return null;
+        }
+        return afterWrites(() -> memberRepository.search(condition));
     }
 
     // GET /v2/members?page=0&size=5
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition,
-                                              Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+                                              Pageable pageable, WebRequest request) {
+        if (notModified(request, "v2", condition, pageable)) {
+            return null;
+        }
+        return afterWrites(() -> memberRepository.searchPageSimple(condition, pageable));
     }
 
     // GET /v3/members?page=0&size=120 (페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때)
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition,
-                                              Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+                                              Pageable pageable, WebRequest request) {
+        if (notModified(request, "v3", condition, pageable)) {
+            return null;
+        }
+        return afterWrites(() -> memberRepository.searchPageComplex(condition, pageable));
+    }
+
+    // GET /v4/members?after=10&size=20 (커서 기반, after = 이전 페이지 마지막 memberId, size는 1 ~ 100)
+    @GetMapping("/v4/members")
+    public Slice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                               @RequestParam(required = false) Long after,
+                                               @RequestParam(defaultValue = "20") int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be greater than zero");
+        }
+        return memberRepository.searchSlice(condition, after, size); // 100보다 크면 리포지토리에서 100으로 줄인다
+    }
+
+    // GET /v5/members?page=0&size=20&sort=age,desc (무한 스크롤 - 전체 개수 없이 다음 페이지 여부만, 카운트 쿼리 없음)
+    @GetMapping("/v5/members")
+    public Slice<MemberTeamDto> searchMemberV5(MemberSearchCondition condition,
+                                               Pageable pageable, WebRequest request) {
+        if (notModified(request, "v5", condition, pageable)) {
+            return null;
+        }
+        try {
+            return afterWrites(() -> memberRepository.searchSlice(condition, pageable));
+        } catch (IllegalArgumentException e) { // 정렬할 수 없는 속성
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // GET /v1/members/autocomplete?prefix=member1&limit=10 (회원 이름 자동완성 - 메모리 인덱스, 준비 전에는 SQL)
+    @GetMapping("/v1/members/autocomplete")
+    public List<String> autocomplete(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        return usernamePrefixIndex.complete(prefix, Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE)));
+    }
+
+    // GET /v1/members/stream?teamName=team1 (format=ndjson 기본, format=json이면 JSON 배열)
+    // 결과 전체를 메모리에 올리지 않고 조회하는 대로 응답에 쓴다
+    @GetMapping("/v1/members/stream")
+    public ResponseEntity<StreamingResponseBody> streamMemberV1(MemberSearchCondition condition,
+                                                                @RequestParam(defaultValue = "ndjson") String format) {
+        boolean jsonArray = "json".equalsIgnoreCase(format);
+        List<StatementScope> scopes = StatementScope.current(); // 응답을 쓰는 스레드에서도 요청 범위(QueryCountFilter)에 기록
+        StreamingResponseBody body = out -> {
+            try (StatementScope.Attachment attachment = StatementScope.attach(scopes)) {
+                writeMembers(condition, out, jsonArray);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // 조회 전에 ETag를 계산해야 한다 (TableVersions 참고)
+    private boolean notModified(WebRequest request, String endpoint, MemberSearchCondition condition, Pageable pageable) {
+        String etag = tableVersions.etag(CountCache.key(endpoint, condition.normalize(), pageable),
+                Member.class, Team.class);
+        return request.checkNotModified(etag);
+    }
+
+    // ETag는 primary에 쓴 버전 기준 - 변경 후 복제 허용 지연 동안은 replica에 아직 없을 수 있으므로 primary에서 읽는다
+    // (replica에서 읽은 이전 데이터가 새 ETag로 캐시되면 다음 변경 전까지 304)
+    private <T> T afterWrites(Supplier<T> search) {
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor != null && tableVersions.changedWithin(monitor.getMaxLag(), Member.class, Team.class)) {
+            return PrimaryRoute.call(search);
+        }
+        return search.get();
+    }
+
+    private void writeMembers(MemberSearchCondition condition, OutputStream out, boolean jsonArray) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null); // 기본 구분자(공백)가 ndjson 각 줄 앞에 붙지 않도록
+            if (jsonArray) {
+                generator.writeStartArray();
+            }
+            memberRepository.streamSearch(condition, dto -> {
+                try {
+                    generator.writeObject(dto);
+                    if (!jsonArray) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (jsonArray) {
+                generator.writeEndArray();
+            }
+        }
     }
 }
\ No newline at end of file
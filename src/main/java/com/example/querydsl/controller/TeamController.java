@@ -0,0 +1,23 @@
+package com.example.querydsl.controller;
+
+import com.example.querydsl.dto.TeamStatsDto;
+import com.example.querydsl.stats.TeamAgeStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamAgeStatistics teamAgeStatistics;
+
+    // GET /v1/teams/stats (팀별 회원 수, 나이 합계/평균/최소/최대 - 메모리에서 조회)
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamAgeStatistics.getStats();
+    }
+
+}
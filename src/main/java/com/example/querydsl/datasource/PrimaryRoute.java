@@ -0,0 +1,42 @@
+package com.example.querydsl.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 읽기 전용 트랜잭션도 primary에서 읽게 한다
+ * 복제 지연으로 방금 커밋된 변경이 보이지 않으면 안 되는 조회 (메모리 스냅샷 적재, 변경 직후 조회 등)
+ *
+ * 커넥션은 트랜잭션의 첫 SQL에서 얻으므로 트랜잭션 시작 전에 감쌀 것 - replica를 쓰지 않으면 아무 일도 하지 않는다
+ * PrimaryRoute.call(() -> readOnlyTransaction.execute(...))
+ */
+public final class PrimaryRoute {
+
+    private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+    private PrimaryRoute() {
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        if (isRequested()) {
+            return work.get();
+        }
+        REQUESTED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            REQUESTED.remove();
+        }
+    }
+
+    public static void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static boolean isRequested() {
+        return REQUESTED.get() != null;
+    }
+
+}
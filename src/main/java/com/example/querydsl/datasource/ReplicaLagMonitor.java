@@ -0,0 +1,91 @@
+package com.example.querydsl.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 하트비트 방식 복제 지연 측정
+ *
+ * 주기적으로 primary의 replica_heartbeat 테이블에 현재 시각을 쓰고,
+ * replica에 복제된 값과 primary의 직전 값의 차이를 복제 지연으로 본다.
+ * 지연이 max-lag를 넘거나 측정할 수 없으면(replica 장애, 하트비트 없음) replica를 쓰지 않는다.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private static final String SELECT_BEAT = "select beat from replica_heartbeat where id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    private volatile long lagMillis = -1; // -1 : 측정 불가
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.primary.execute("create table if not exists replica_heartbeat (id int primary key, beat bigint not null)");
+    }
+
+    @Scheduled(fixedDelayString = "${querydsl.datasource.replica.lag-check-interval:5000}")
+    public void check() {
+        try {
+            Long primaryBeat = beat(primary);
+            Long replicaBeat = beat(replica);
+            lagMillis = primaryBeat == null || replicaBeat == null ? -1 : Math.max(0, primaryBeat - replicaBeat);
+        } catch (DataAccessException e) {
+            log.warn("Failed to measure replica lag, reads go to primary: {}", e.getMessage());
+            lagMillis = -1;
+        }
+        writeBeat();
+    }
+
+    public boolean isReplicaAvailable() {
+        long lag = lagMillis;
+        return lag >= 0 && lag <= maxLag.toMillis();
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    // replica에서 읽을 때 허용하는 최대 지연 - 커밋 후 이 시간 동안은 replica에 반영되지 않았을 수 있다
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    private void writeBeat() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("update replica_heartbeat set beat = ? where id = 1", now) == 0) {
+                primary.update("insert into replica_heartbeat (id, beat) values (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to write replica heartbeat: {}", e.getMessage());
+        }
+    }
+
+    private static Long beat(JdbcTemplate jdbcTemplate) {
+        List<Long> beats = jdbcTemplate.queryForList(SELECT_BEAT, Long.class);
+        return beats.isEmpty() ? null : beats.get(0);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.getLagMillis())
+                .baseUnit("milliseconds")
+                .description("Replication lag measured by heartbeat, -1 when unknown")
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.querydsl.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 기준 datasource 라우팅
+ * - readOnly 트랜잭션 -> replica (복제 지연이 허용치를 넘거나 PrimaryRoute 안이면 primary)
+ * - 그 외(쓰기 트랜잭션, 트랜잭션 없음) -> primary
+ *
+ * 커넥션을 트랜잭션 시작 시점이 아닌 첫 SQL 실행 시점에 얻어야 readOnly 여부가 반영되므로
+ * LazyConnectionDataSourceProxy로 감싸서 쓴다.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {PRIMARY, REPLICA}
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primary;
+    private final Counter replica;
+    private final Counter fallback;
+
+    public RoutingDataSource(ReplicaLagMonitor lagMonitor, MeterRegistry registry) {
+        this.lagMonitor = lagMonitor;
+        this.primary = routeCounter(registry, "primary");
+        this.replica = routeCounter(registry, "replica");
+        this.fallback = Counter.builder("datasource.routing.fallback")
+                .description("Read-only connections sent to primary because the replica lags")
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PrimaryRoute.isRequested()) {
+            primary.increment();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaAvailable()) {
+            fallback.increment();
+            primary.increment();
+            return Route.PRIMARY;
+        }
+        replica.increment();
+        return Route.REPLICA;
+    }
+
+    private static Counter routeCounter(MeterRegistry registry, String target) {
+        return Counter.builder("datasource.routing")
+                .tag("target", target)
+                .description("Connections acquired per routed datasource")
+                .register(registry);
+    }
+
+}
@@ -2,10 +2,22 @@ package com.example.querydsl.dto;
 
 import lombok.Data;
 
+import static org.springframework.util.StringUtils.isEmpty;
+
 @Data
 public class MemberSearchCondition {
     private String userName;
     private String teamName;
     private Integer ageGoe; // 이 나이 이상
     private Integer ageLoe; // 이 나이 이하
+
+    // 빈 문자열은 조건 없음과 같으므로 null로 맞춘다 (캐시 키 등 조건 비교용)
+    public MemberSearchCondition normalize() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUserName(isEmpty(userName) ? null : userName);
+        normalized.setTeamName(isEmpty(teamName) ? null : teamName);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long sum;
+    private Double avg; // 회원이 없으면 null
+    private Integer min;
+    private Integer max;
+
+    public TeamStatsDto(Long teamId, String teamName, long count, long sum, Integer min, Integer max) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? null : (double) sum / count;
+        this.min = min;
+        this.max = max;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.querydsl.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA 엔티티 리스너 - 엔티티 단위 변경을 EntityChangedEvent로 발행
+ * (스프링 부트는 엔티티 리스너를 스프링 빈으로 생성하므로 의존성 주입 가능)
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        publisher.publishEvent(new EntityChangedEvent(Hibernate.getClass(entity)));
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.example.querydsl.entity;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Member, Team 테이블 변경 알림 (엔티티 저장/수정/삭제, 벌크 연산)
+ */
+@Getter
+@ToString
+public class EntityChangedEvent {
+
+    private final Class<?> entityType;
+    private final boolean bulk; // 벌크 연산 - 어떤 로우가 바뀌었는지 알 수 없음
+
+    public EntityChangedEvent(Class<?> entityType) {
+        this(entityType, false);
+    }
+
+    public EntityChangedEvent(Class<?> entityType, boolean bulk) {
+        this.entityType = entityType;
+        this.bulk = bulk;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.example.querydsl.entity;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * 커밋된 엔티티 변경 - 변경 전/후 상태 포함 (롤백된 변경은 발행되지 않음)
+ * 벌크 연산은 발행되지 않으므로 EntityChangedEvent(bulk)를 함께 볼 것
+ */
+@Getter
+@ToString(of = {"type", "entityType", "id"})
+public class EntityCommittedEvent {
+
+    public enum Type {INSERT, UPDATE, DELETE}
+
+    private final Type type;
+    private final Class<?> entityType;
+    private final Object id;
+    private final String[] propertyNames;
+    private final Object[] oldState; // INSERT면 null, 분리된 엔티티를 merge한 UPDATE도 null일 수 있음
+    private final Object[] state; // DELETE면 null
+
+    public EntityCommittedEvent(Type type, Class<?> entityType, Object id,
+                                String[] propertyNames, Object[] oldState, Object[] state) {
+        this.type = type;
+        this.entityType = entityType;
+        this.id = id;
+        this.propertyNames = propertyNames;
+        this.oldState = oldState;
+        this.state = state;
+    }
+
+    public boolean hasOldState() {
+        return oldState != null;
+    }
+
+    public Object getOld(String property) {
+        return oldState == null ? null : oldState[indexOf(property)];
+    }
+
+    public Object get(String property) {
+        return state == null ? null : state[indexOf(property)];
+    }
+
+    private int indexOf(String property) {
+        int index = Arrays.asList(propertyNames).indexOf(property);
+        if (index < 0) {
+            throw new IllegalArgumentException("No property " + property + " in " + entityType.getSimpleName());
+        }
+        return index;
+    }
+
+}
@@ -5,11 +5,24 @@ import lombok.*;
 import javax.persistence.*;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
+@NamedEntityGraph(name = "Member.team", attributeNodes = @NamedAttributeNode("team"))
+// 검색 조건(usernameEq, ageGoe/ageLoe, teamNameEq + 나이) 모양에 맞춘 인덱스
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age")})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
-    @Id @GeneratedValue
+
+    // 시퀀스 한번에 id를 이만큼 받아 둔다 (pooled) - JDBC 배치 insert 중 로우마다 시퀀스를 조회하지 않도록 batch_size 이상
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "member_id")
     private Long id;
 
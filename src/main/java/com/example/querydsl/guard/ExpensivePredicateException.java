@@ -0,0 +1,22 @@
+package com.example.querydsl.guard;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+/**
+ * 예상 비용이 querydsl.predicate-guard.reject-rows를 넘는 조건 - DB에 보내지 않고 거부
+ */
+public class ExpensivePredicateException extends InvalidDataAccessApiUsageException {
+
+    private final PredicateCost cost;
+
+    public ExpensivePredicateException(String predicate, PredicateCost cost, long rejectRows) {
+        super(String.format("Predicate [%s] would read about %d rows of %s (limit %d): %s",
+                predicate, cost.getEstimatedRows(), cost.getTable(), rejectRows, String.join(", ", cost.getReasons())));
+        this.cost = cost;
+    }
+
+    public PredicateCost getCost() {
+        return cost;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.example.querydsl.guard;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 조건 하나의 예상 비용
+ * - estimatedRows : 읽어야 하는 로우 수 (인덱스를 타면 인덱스 범위, 아니면 테이블 전체)
+ * - matchedRows   : 조건에 맞는 로우 수
+ * - accessPath    : 사용할 인덱스 이름, 없으면 null (전체 스캔)
+ * - sortIndexed   : 정렬을 인덱스 순서로 읽을 수 있는지 (아니면 맞는 로우 전체를 정렬)
+ * - reasons       : 인덱스를 못 쓰는 조건, 정렬 설명
+ */
+@Getter
+@ToString
+public class PredicateCost {
+
+    private final String table;
+    private final long estimatedRows;
+    private final long matchedRows;
+    private final String accessPath;
+    private final boolean sortIndexed;
+    private final List<String> reasons;
+
+    public PredicateCost(String table, long estimatedRows, long matchedRows, String accessPath,
+                         boolean sortIndexed, List<String> reasons) {
+        this.table = table;
+        this.estimatedRows = estimatedRows;
+        this.matchedRows = matchedRows;
+        this.accessPath = accessPath;
+        this.sortIndexed = sortIndexed;
+        this.reasons = reasons;
+    }
+
+    public boolean isFullScan() {
+        return accessPath == null;
+    }
+
+}
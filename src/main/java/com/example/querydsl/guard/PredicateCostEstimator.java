@@ -0,0 +1,372 @@
+package com.example.querydsl.guard;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathType;
+import com.querydsl.core.types.Predicate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Querydsl 조건의 비용 추정 - 표현식 트리를 따라가며 @Table 인덱스와 TableStatistics로 읽을 로우 수를 계산한다
+ *
+ * - 최상위 and 조건마다 선택도(맞는 비율)를 구한다. =, in은 1/서로 다른 값 수, 범위는 최소/최대값 비율
+ * - 인덱스마다 앞 컬럼부터 조건을 찾아(=, in이면 다음 컬럼까지) 선택도를 곱하고 가장 작은 인덱스를 접근 경로로
+ * - 인덱스를 못 쓰는 조건 : <>, not in, contains/endsWith, '%'로 시작하는 like, 대소문자 무시 비교, 함수/연산 적용 컬럼
+ * - or는 모든 갈래가 인덱스를 탈 때만 인덱스 합집합
+ * - member.team.name 같은 조인 조건은 대상 테이블 인덱스 + 조인 컬럼 인덱스가 모두 있어야 인덱스로 본다
+ * 통계가 없으면 PostgreSQL 기본 선택도와 비슷한 값을 쓴다. 조건끼리는 독립이라고 가정
+ */
+@Component
+@ConditionalOnProperty(prefix = "querydsl.predicate-guard", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PredicateCostEstimator {
+
+    private static final double EQ_SELECTIVITY = 0.005;
+    private static final double RANGE_SELECTIVITY = 1 / 3.0;
+    private static final double BETWEEN_SELECTIVITY = 1 / 9.0;
+    private static final double NULL_SELECTIVITY = 0.01;
+    private static final double PATTERN_SELECTIVITY = 0.1;
+    private static final double UNKNOWN_SELECTIVITY = 0.5;
+
+    private final TableStatistics statistics;
+
+    // sortProperties - 루트 엔티티 기준 프로퍼티 경로 ("age", "team.name")
+    public PredicateCost estimate(Class<?> entityType, Predicate predicate, List<String> sortProperties) {
+        TableModel model = TableModel.of(entityType);
+        long rows = statistics.rows(model.getTable());
+        List<String> reasons = new ArrayList<>();
+
+        List<Condition> conditions = conditions(model, predicate, reasons);
+        double matched = conditions.stream().mapToDouble(condition -> condition.selectivity).reduce(1, (a, b) -> a * b);
+        Access access = access(model, conditions);
+        if (access == null) {
+            reasons.add("no index condition, full scan of " + model.getTable());
+        }
+        boolean sortIndexed = sortIndexed(model, sortProperties, access, reasons);
+        return new PredicateCost(model.getTable(),
+                rows(rows, access == null ? 1 : access.fraction),
+                rows(rows, matched),
+                access == null ? null : access.index,
+                sortIndexed,
+                reasons);
+    }
+
+    // 부동소수 오차로 한 로우 더 세지 않도록
+    private static long rows(long rows, double fraction) {
+        return (long) Math.ceil(rows * fraction - 1e-6);
+    }
+
+    private List<Condition> conditions(TableModel model, Predicate predicate, List<String> reasons) {
+        List<Condition> conditions = new ArrayList<>();
+        for (Predicate conjunct : conjuncts(predicate)) {
+            conditions.add(condition(model, conjunct, reasons));
+        }
+        return conditions;
+    }
+
+    // 인덱스별로 앞 컬럼부터 조건을 붙여 읽을 비율이 가장 작은 것, 인덱스를 못 쓰면 null
+    private Access access(TableModel model, List<Condition> conditions) {
+        Access best = null;
+        for (Map.Entry<String, List<String>> index : model.getIndexes().entrySet()) {
+            double fraction = 1;
+            int used = 0;
+            int equalityPrefix = 0;
+            for (String column : index.getValue()) {
+                Condition condition = conditions.stream()
+                        .filter(c -> column.equals(c.column))
+                        .min(Comparator.comparingDouble(c -> c.selectivity))
+                        .orElse(null);
+                if (condition == null) {
+                    break;
+                }
+                fraction *= condition.selectivity;
+                used++;
+                if (!condition.equality) {
+                    break;
+                }
+                equalityPrefix++;
+            }
+            if (used > 0 && (best == null || fraction < best.fraction)) {
+                best = new Access(index.getKey(), index.getValue(), equalityPrefix, fraction);
+            }
+        }
+        for (Condition condition : conditions) {
+            if (condition.union != null && (best == null || condition.union.fraction < best.fraction)) {
+                best = condition.union;
+            }
+        }
+        return best;
+    }
+
+    private Condition condition(TableModel model, Predicate predicate, List<String> reasons) {
+        if (!(predicate instanceof Operation)) {
+            reasons.add(predicate + " can not be analyzed");
+            return Condition.filter(UNKNOWN_SELECTIVITY);
+        }
+        Operation<?> operation = (Operation<?>) predicate;
+        Operator operator = operation.getOperator();
+        if (operator == Ops.OR) {
+            return union(model, operation, reasons);
+        }
+        List<Expression<?>> args = operation.getArgs();
+        ColumnRef ref = args.isEmpty() || !(args.get(0) instanceof Path) ? null : columnRef(model, (Path<?>) args.get(0));
+        if (ref == null) {
+            reasons.add(predicate + " is not a comparison on a column");
+            return Condition.filter(UNKNOWN_SELECTIVITY);
+        }
+        List<Object> values = new ArrayList<>();
+        for (Expression<?> arg : args.subList(1, args.size())) {
+            if (!(arg instanceof Constant)) {
+                reasons.add(predicate + " compares with a non-constant expression");
+                return Condition.filter(UNKNOWN_SELECTIVITY);
+            }
+            values.add(((Constant<?>) arg).getConstant());
+        }
+
+        double selectivity;
+        boolean equality = false;
+        if (operator == Ops.EQ) {
+            selectivity = eq(ref);
+            equality = true;
+        } else if (operator == Ops.IN) {
+            selectivity = Math.min(1, ((Collection<?>) values.get(0)).size() * eq(ref));
+            equality = true;
+        } else if (operator == Ops.GT || operator == Ops.GOE || operator == Ops.LT || operator == Ops.LOE
+                || operator == Ops.BETWEEN) {
+            selectivity = range(ref, operator, values);
+        } else if (operator == Ops.IS_NULL) {
+            selectivity = NULL_SELECTIVITY;
+        } else if (operator == Ops.STARTS_WITH || operator == Ops.LIKE && isPrefixPattern(values.get(0))) {
+            selectivity = prefix(ref, String.valueOf(values.get(0)));
+        } else {
+            reasons.add(operator + " on " + ref.label + " can not use an index");
+            return Condition.filter(operator == Ops.NE || operator == Ops.NOT_IN || operator == Ops.IS_NOT_NULL
+                    ? 1 - EQ_SELECTIVITY : PATTERN_SELECTIVITY);
+        }
+
+        if (ref.joinColumn != null) {
+            // 대상 테이블 인덱스로 찾고, 찾은 키로 조인 컬럼 인덱스 (= 조건과 같다)
+            if (!ref.table.isLeading(ref.column) || !model.isLeading(ref.joinColumn)) {
+                reasons.add("no index for " + ref.label + " join");
+                return Condition.filter(selectivity);
+            }
+            return new Condition(ref.joinColumn, true, selectivity, null);
+        }
+        if (ref.table.getIndexes().values().stream().noneMatch(columns -> columns.contains(ref.column))) {
+            reasons.add("no index on " + ref.label);
+        }
+        return new Condition(ref.column, equality, selectivity, null);
+    }
+
+    // 모든 갈래가 인덱스를 타면 인덱스 합집합
+    private Condition union(TableModel model, Operation<?> or, List<String> reasons) {
+        List<Predicate> disjuncts = new ArrayList<>();
+        collect(or, Ops.OR, disjuncts);
+        double selectivity = 0;
+        double fraction = 0;
+        List<String> indexes = new ArrayList<>();
+        for (Predicate disjunct : disjuncts) {
+            List<Condition> conditions = conditions(model, disjunct, reasons);
+            selectivity += conditions.stream().mapToDouble(c -> c.selectivity).reduce(1, (a, b) -> a * b);
+            Access access = access(model, conditions);
+            if (access == null) {
+                fraction = -1;
+            } else if (fraction >= 0) {
+                fraction += access.fraction;
+                indexes.add(access.index);
+            }
+        }
+        if (fraction < 0) {
+            reasons.add("or with a branch that can not use an index");
+            return Condition.filter(Math.min(1, selectivity));
+        }
+        Access union = new Access("union(" + String.join(", ", indexes) + ")", null, 0, Math.min(1, fraction));
+        return new Condition(null, false, Math.min(1, selectivity), union);
+    }
+
+    // 첫 정렬 컬럼이 인덱스 순서와 같으면 정렬 없이 읽는다
+    private boolean sortIndexed(TableModel model, List<String> sortProperties, Access access, List<String> reasons) {
+        if (sortProperties.isEmpty()) {
+            return true;
+        }
+        String first = sortProperties.get(0);
+        ColumnRef ref = columnRef(model, first.split("\\."));
+        boolean indexed;
+        if (ref == null || ref.joinColumn != null) {
+            indexed = false;
+        } else if (access == null) {
+            indexed = model.isLeading(ref.column);
+        } else {
+            indexed = access.columns != null && access.equalityPrefix < access.columns.size()
+                    && access.columns.get(access.equalityPrefix).equals(ref.column);
+        }
+        if (!indexed) {
+            reasons.add("sort by " + first + " sorts all matched rows");
+        }
+        return indexed;
+    }
+
+    private double eq(ColumnRef ref) {
+        long distinct = statistics.distinct(ref.table.getTable(), ref.column);
+        return distinct > 0 ? 1.0 / distinct : EQ_SELECTIVITY;
+    }
+
+    private double range(ColumnRef ref, Operator operator, List<Object> values) {
+        double[] range = statistics.range(ref.table.getTable(), ref.column);
+        double fallback = operator == Ops.BETWEEN ? BETWEEN_SELECTIVITY : RANGE_SELECTIVITY;
+        if (range == null || range[1] <= range[0] || !values.stream().allMatch(v -> v instanceof Number)) {
+            return fallback;
+        }
+        double min = range[0];
+        double max = range[1];
+        double span = max - min;
+        double first = ((Number) values.get(0)).doubleValue();
+        double fraction;
+        if (operator == Ops.BETWEEN) {
+            fraction = (((Number) values.get(1)).doubleValue() - first) / span;
+        } else if (operator == Ops.GT || operator == Ops.GOE) {
+            fraction = (max - first) / span;
+        } else {
+            fraction = (first - min) / span;
+        }
+        return Math.max(eq(ref), Math.min(1, fraction)); // 경계값 포함
+    }
+
+    // 접두어가 짧을수록 많이 맞는다
+    private double prefix(ColumnRef ref, String pattern) {
+        int length = pattern.replaceAll("[%_].*$", "").length();
+        return Math.max(eq(ref), Math.pow(PATTERN_SELECTIVITY, Math.min(length, 3)));
+    }
+
+    private static boolean isPrefixPattern(Object pattern) {
+        String like = String.valueOf(pattern);
+        return !like.isEmpty() && like.charAt(0) != '%' && like.charAt(0) != '_';
+    }
+
+    // 루트 테이블 컬럼, 또는 연관관계(member.team.name)로 조인한 테이블 컬럼
+    private static ColumnRef columnRef(TableModel model, Path<?> path) {
+        List<String> properties = properties(path);
+        if (properties == null || path.getRoot().getType() != model.getEntityType()) {
+            return null;
+        }
+        return columnRef(model, properties.toArray(new String[0]));
+    }
+
+    private static ColumnRef columnRef(TableModel model, String[] properties) {
+        if (properties.length == 1) {
+            String column = model.column(properties[0]);
+            return column == null ? null : new ColumnRef(model, column, null, properties[0]);
+        }
+        Class<?> target = properties.length == 2 ? model.association(properties[0]) : null;
+        if (target == null) {
+            return null;
+        }
+        String joinColumn = model.column(properties[0]);
+        TableModel joined = TableModel.of(target);
+        if (joined.isId(properties[1])) {
+            return new ColumnRef(model, joinColumn, null, properties[0] + "." + properties[1]); // 조인 없이 외래 키
+        }
+        String column = joined.column(properties[1]);
+        return column == null ? null : new ColumnRef(joined, column, joinColumn, properties[0] + "." + properties[1]);
+    }
+
+    // 루트부터 프로퍼티 이름들, 컬렉션 원소 등 프로퍼티가 아닌 경로면 null
+    static List<String> properties(Path<?> path) {
+        LinkedList<String> properties = new LinkedList<>();
+        for (Path<?> current = path; current.getMetadata().getParent() != null; current = current.getMetadata().getParent()) {
+            if (current.getMetadata().getPathType() != PathType.PROPERTY) {
+                return null;
+            }
+            properties.addFirst(current.getMetadata().getName());
+        }
+        return properties.isEmpty() ? null : properties;
+    }
+
+    static List<Predicate> conjuncts(Predicate predicate) {
+        List<Predicate> conjuncts = new ArrayList<>();
+        collect(predicate, Ops.AND, conjuncts);
+        return conjuncts;
+    }
+
+    private static void collect(Predicate predicate, Operator operator, List<Predicate> result) {
+        if (predicate instanceof BooleanBuilder) {
+            Predicate value = ((BooleanBuilder) predicate).getValue();
+            if (value != null) {
+                collect(value, operator, result);
+            }
+        } else if (predicate instanceof Operation && ((Operation<?>) predicate).getOperator() == operator) {
+            for (Expression<?> arg : ((Operation<?>) predicate).getArgs()) {
+                collect((Predicate) arg, operator, result);
+            }
+        } else if (predicate != null) {
+            result.add(predicate);
+        }
+    }
+
+    /**
+     * 최상위 and 조건 하나
+     * - column : 인덱스로 찾을 수 있는 루트 테이블 컬럼, 못 쓰면 null
+     * - equality : 복합 인덱스 다음 컬럼까지 쓸 수 있는지 (=, in)
+     * - union : 인덱스 합집합으로 읽는 or 조건
+     */
+    private static class Condition {
+        final String column;
+        final boolean equality;
+        final double selectivity;
+        final Access union;
+
+        Condition(String column, boolean equality, double selectivity, Access union) {
+            this.column = column;
+            this.equality = equality;
+            this.selectivity = selectivity;
+            this.union = union;
+        }
+
+        static Condition filter(double selectivity) {
+            return new Condition(null, false, selectivity, null);
+        }
+    }
+
+    private static class Access {
+        final String index;
+        final List<String> columns; // 합집합이면 null
+        final int equalityPrefix;
+        final double fraction;
+
+        Access(String index, List<String> columns, int equalityPrefix, double fraction) {
+            this.index = index;
+            this.columns = columns;
+            this.equalityPrefix = equalityPrefix;
+            this.fraction = fraction;
+        }
+    }
+
+    private static class ColumnRef {
+        final TableModel table;
+        final String column;
+        final String joinColumn; // 조인한 테이블이면 루트 테이블의 조인 컬럼
+        final String label;
+
+        ColumnRef(TableModel table, String column, String joinColumn, String label) {
+            this.table = table;
+            this.column = column;
+            this.joinColumn = joinColumn;
+            this.label = label;
+        }
+    }
+
+}
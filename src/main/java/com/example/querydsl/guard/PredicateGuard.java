@@ -0,0 +1,291 @@
+package com.example.querydsl.guard;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.memory.InMemoryMemberStore;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalLong;
+
+/**
+ * QuerydslPredicateExecutor 호출 가드 (querydsl.predicate-guard.enabled=true)
+ *
+ * 리포지토리에 넘어온 Predicate를 PredicateRewriter로 바꾼 뒤 PredicateCostEstimator로 읽을 로우 수를 추정해
+ * - REJECT    : 읽을 로우 수 > reject-rows (ExpensivePredicateException, DB에 보내지 않음)
+ * - DOWNGRADE : 추정 로우 수 > allow-rows인 목록 조회를 제한해서 실행
+ *               findAll(Predicate[, Sort | OrderSpecifier...])은 max-rows개까지만,
+ *               findAll(Predicate, Pageable)은 컨텐츠는 그대로, 전체 개수는 max-rows(또는 현재 페이지 끝)까지만 센다
+ * - ALLOW     : 그 외 (count, exists, findOne, findBy는 줄일 수 없으므로 거부 아니면 허용)
+ * 제한 실행은 정렬을 인덱스 순서로 읽을 수 있으면(정렬 없음 포함) 필요한 만큼 맞는 로우를 찾으면 멈추므로
+ * 읽을 로우 수를 (가져올 로우 수 / 맞는 비율)로 본다. 인덱스 없는 정렬은 맞는 로우를 모두 읽는다.
+ *
+ * mode
+ * - observe (기본) : 결정을 메트릭, 로그로만 남기고 호출은 그대로 실행 (임계값을 정하기 위한 관찰용)
+ * - enforce : 결정대로 거부 / 제한 실행 - 제한 실행된 목록, 페이지 전체 개수는 잘릴 수 있으므로(경고 로그, truncated 메트릭)
+ *             호출하는 쪽이 잘린 결과를 감당할 수 있을 때만 켤 것
+ * 메모리 계층(InMemoryMemberStore)이 답할 수 있는 회원 count / exists / findAll(Predicate)는 DB에 가지 않으므로 추정하지 않는다.
+ *
+ * 메트릭
+ * - querydsl.predicate.guard{entity, method, decision, rewritten, mode} : 결정 수
+ * - querydsl.predicate.estimated.rows{entity, method} : 추정 로우 수
+ * - querydsl.predicate.guard.truncated{entity, method} : max-rows에서 잘린 결과 수
+ */
+@Slf4j
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "querydsl.predicate-guard", name = "enabled", havingValue = "true")
+public class PredicateGuard {
+
+    public enum Decision {ALLOW, DOWNGRADE, REJECT}
+
+    public enum Mode {OBSERVE, ENFORCE}
+
+    private final PredicateCostEstimator estimator;
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry registry;
+    private final ObjectProvider<InMemoryMemberStore> memoryStore; // querydsl.memory-tier.enabled=true일 때만
+    private final Mode mode;
+    private final long allowRows;
+    private final long rejectRows;
+    private final int maxRows;
+
+    public PredicateGuard(PredicateCostEstimator estimator,
+                          EntityManager em,
+                          JPAQueryFactory queryFactory,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry registry,
+                          ObjectProvider<InMemoryMemberStore> memoryStore,
+                          @Value("${querydsl.predicate-guard.mode:observe}") String mode,
+                          @Value("${querydsl.predicate-guard.allow-rows:10000}") long allowRows,
+                          @Value("${querydsl.predicate-guard.reject-rows:1000000}") long rejectRows,
+                          @Value("${querydsl.predicate-guard.max-rows:1000}") int maxRows) {
+        this.estimator = estimator;
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.registry = registry;
+        this.memoryStore = memoryStore;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.allowRows = allowRows;
+        this.rejectRows = rejectRows;
+        this.maxRows = maxRows;
+    }
+
+    @Around("execution(* *(com.querydsl.core.types.Predicate, ..))"
+            + " && target(org.springframework.data.querydsl.QuerydslPredicateExecutor)")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        Predicate original = (Predicate) args[0];
+        EntityPath<?> root = original == null ? null : root(original);
+        String method = joinPoint.getSignature().getName();
+        if (root == null || servedFromMemory(root, method, args.length, original)) {
+            return joinPoint.proceed();
+        }
+        Predicate predicate = PredicateRewriter.rewrite(original);
+        args[0] = predicate;
+
+        Pageable pageable = argument(args, Pageable.class);
+        Sort sort = pageable != null ? pageable.getSort() : argument(args, Sort.class);
+        OrderSpecifier<?>[] orders = argument(args, OrderSpecifier[].class);
+        long limit = !method.equals("findAll") ? -1
+                : pageable != null && pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : maxRows;
+
+        PredicateCost cost = estimator.estimate(root.getType(), predicate, sortProperties(sort, orders));
+        Decision decision = decide(cost, limit);
+        record(root, method, decision, predicate != original, cost);
+        if (mode == Mode.OBSERVE) {
+            if (decision != Decision.ALLOW) {
+                log.info("Predicate guard would {} {}({}): {}", decision.name().toLowerCase(), method, predicate, cost);
+            }
+            return joinPoint.proceed(args);
+        }
+
+        switch (decision) {
+            case REJECT:
+                throw new ExpensivePredicateException(predicate.toString(), cost, rejectRows);
+            case DOWNGRADE:
+                log.debug("Downgrading {}({}) to a limited query: {}", method, predicate, cost);
+                return pageable != null
+                        ? limitedPage(root, predicate, pageable, method)
+                        : limitedList(root, predicate, sort, orders, method);
+            default:
+                return joinPoint.proceed(args);
+        }
+    }
+
+    // 메모리 계층이 답하는 호출 - MemberRepositoryImpl의 count / exists / findAll(Predicate) 재정의와 같은 조건
+    private boolean servedFromMemory(EntityPath<?> root, String method, int arguments, Predicate predicate) {
+        InMemoryMemberStore store = memoryStore.getIfAvailable();
+        if (store == null || root.getType() != Member.class || arguments != 1
+                || !method.equals("count") && !method.equals("exists") && !method.equals("findAll")) {
+            return false;
+        }
+        OptionalLong matches = store.matchCount(predicate);
+        return matches.isPresent()
+                && (!method.equals("findAll") || matches.getAsLong() <= InMemoryMemberStore.ENTITY_LOOKUP_LIMIT);
+    }
+
+    // limit - 제한 실행할 때 가져올 로우 수, 목록 조회가 아니면 -1
+    Decision decide(PredicateCost cost, long limit) {
+        long estimated = cost.getEstimatedRows();
+        long read = estimated;
+        if (limit >= 0 && cost.isSortIndexed() && estimated > 0) {
+            double matchRatio = Math.max(cost.getMatchedRows(), 1) / (double) estimated;
+            read = Math.min(estimated, (long) Math.ceil(limit / matchRatio));
+        }
+        if (read > rejectRows) {
+            return Decision.REJECT;
+        }
+        return estimated > allowRows && limit >= 0 ? Decision.DOWNGRADE : Decision.ALLOW;
+    }
+
+    private <T> List<T> limitedList(EntityPath<T> root, Predicate predicate, Sort sort, OrderSpecifier<?>[] orders,
+                                    String method) {
+        return readOnlyTransaction.execute(status -> {
+            JPQLQuery<T> query = queryFactory.selectFrom(root).where(predicate).limit(maxRows + 1L);
+            if (sort != null) {
+                query = querydsl(root).applySorting(sort, query);
+            }
+            if (orders != null) {
+                query.orderBy(orders);
+            }
+            List<T> result = query.fetch();
+            if (result.size() > maxRows) {
+                truncated(root, method, predicate);
+                return result.subList(0, maxRows);
+            }
+            return result;
+        });
+    }
+
+    private <T> Page<T> limitedPage(EntityPath<T> root, Predicate predicate, Pageable pageable, String method) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(limitedList(root, predicate, pageable.getSort(), null, method));
+        }
+        return readOnlyTransaction.execute(status -> {
+            List<T> content = querydsl(root)
+                    .applyPagination(pageable, queryFactory.selectFrom(root).where(predicate))
+                    .fetch();
+            return PageableExecutionUtils.getPage(content, pageable, () -> {
+                long cap = Math.max(maxRows, pageable.getOffset() + pageable.getPageSize());
+                long total = queryFactory.selectOne().from(root).where(predicate).limit(cap + 1).fetch().size();
+                if (total > cap) {
+                    truncated(root, method, predicate);
+                    return cap;
+                }
+                return total;
+            });
+        });
+    }
+
+    private <T> Querydsl querydsl(EntityPath<T> root) {
+        return new Querydsl(em, new PathBuilder<T>(root.getType(), root.getMetadata()));
+    }
+
+    private void record(EntityPath<?> root, String method, Decision decision, boolean rewritten, PredicateCost cost) {
+        String entity = root.getType().getSimpleName();
+        Counter.builder("querydsl.predicate.guard")
+                .description("Predicate guard decisions")
+                .tags("entity", entity, "method", method,
+                        "decision", decision.name().toLowerCase(), "rewritten", String.valueOf(rewritten),
+                        "mode", mode.name().toLowerCase())
+                .register(registry)
+                .increment();
+        DistributionSummary.builder("querydsl.predicate.estimated.rows")
+                .tags("entity", entity, "method", method)
+                .register(registry)
+                .record(cost.getEstimatedRows());
+    }
+
+    private void truncated(EntityPath<?> root, String method, Predicate predicate) {
+        log.warn("Predicate guard truncated {}({}) at {} rows", method, predicate, maxRows);
+        Counter.builder("querydsl.predicate.guard.truncated")
+                .tags("entity", root.getType().getSimpleName(), "method", method)
+                .register(registry)
+                .increment();
+    }
+
+    // 정렬 프로퍼티 경로 ("age", "team.name"), 경로가 아닌 정렬식은 "?" (인덱스 없음으로 본다)
+    private static List<String> sortProperties(Sort sort, OrderSpecifier<?>[] orders) {
+        List<String> properties = new ArrayList<>();
+        if (sort != null) {
+            sort.forEach(order -> properties.add(order.getProperty()));
+        }
+        if (orders != null) {
+            for (OrderSpecifier<?> order : orders) {
+                List<String> path = order.getTarget() instanceof Path
+                        ? PredicateCostEstimator.properties((Path<?>) order.getTarget()) : null;
+                properties.add(path == null ? "?" : String.join(".", path));
+            }
+        }
+        return properties;
+    }
+
+    // 조건에서 처음 만나는 엔티티 루트 경로 (QMember.member 등)
+    private static EntityPath<?> root(Expression<?> expression) {
+        if (expression instanceof Path) {
+            Path<?> root = ((Path<?>) expression).getRoot();
+            return root instanceof EntityPath && root.getType().isAnnotationPresent(Entity.class)
+                    ? (EntityPath<?>) root : null;
+        }
+        if (expression instanceof Operation) {
+            for (Expression<?> arg : ((Operation<?>) expression).getArgs()) {
+                EntityPath<?> root = root(arg);
+                if (root != null) {
+                    return root;
+                }
+            }
+        }
+        if (expression instanceof BooleanBuilder) {
+            Predicate value = ((BooleanBuilder) expression).getValue();
+            return value == null ? null : root(value);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T argument(Object[] args, Class<T> type) {
+        for (Object arg : args) {
+            if (type.isInstance(arg)) {
+                return (T) arg;
+            }
+        }
+        return null;
+    }
+
+}
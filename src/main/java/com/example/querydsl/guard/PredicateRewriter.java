@@ -0,0 +1,179 @@
+package com.example.querydsl.guard;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 인덱스를 탈 수 있는 모양으로 조건 바꾸기 (결과는 같다, null 비교도 같은 3값 논리)
+ * - not을 안으로 : not(age > 10) -> age <= 10, not(a and b) -> not a or not b, not(x in ..) -> x not in ..
+ * - 같은 경로의 = 조건 or -> in : username = 'a' or username = 'b' -> username in ('a', 'b')
+ * 바꿀 것이 없으면 받은 인스턴스를 그대로 돌려준다
+ */
+public final class PredicateRewriter {
+
+    private static final Map<Operator, Operator> NEGATED = Map.of(
+            Ops.EQ, Ops.NE,
+            Ops.NE, Ops.EQ,
+            Ops.GT, Ops.LOE,
+            Ops.GOE, Ops.LT,
+            Ops.LT, Ops.GOE,
+            Ops.LOE, Ops.GT,
+            Ops.IN, Ops.NOT_IN,
+            Ops.NOT_IN, Ops.IN,
+            Ops.IS_NULL, Ops.IS_NOT_NULL,
+            Ops.IS_NOT_NULL, Ops.IS_NULL);
+
+    private PredicateRewriter() {
+    }
+
+    public static Predicate rewrite(Predicate predicate) {
+        if (predicate instanceof BooleanBuilder) {
+            Predicate value = ((BooleanBuilder) predicate).getValue();
+            Predicate rewritten = value == null ? null : rewrite(value);
+            return rewritten == value ? predicate : rewritten;
+        }
+        if (!(predicate instanceof Operation)) {
+            return predicate;
+        }
+        Operation<?> operation = (Operation<?>) predicate;
+        Operator operator = operation.getOperator();
+        if (operator == Ops.NOT) {
+            Predicate negated = negate((Predicate) operation.getArg(0));
+            return negated == null ? predicate : negated;
+        }
+        if (operator == Ops.AND) {
+            List<Predicate> args = rewriteAll(operation);
+            return args == null ? predicate : ExpressionUtils.allOf(args);
+        }
+        if (operator == Ops.OR) {
+            List<Predicate> args = rewriteAll(operation);
+            List<Predicate> merged = mergeEquals(args == null ? disjuncts(operation) : args);
+            if (merged != null) {
+                return ExpressionUtils.anyOf(merged);
+            }
+            return args == null ? predicate : ExpressionUtils.anyOf(args);
+        }
+        return predicate;
+    }
+
+    // not을 안으로 밀어 넣은 조건, 밀어 넣을 수 없으면 null
+    private static Predicate negate(Predicate predicate) {
+        if (predicate instanceof BooleanBuilder) {
+            Predicate value = ((BooleanBuilder) predicate).getValue();
+            return value == null ? null : negate(value);
+        }
+        if (!(predicate instanceof Operation)) {
+            return null;
+        }
+        Operation<?> operation = (Operation<?>) predicate;
+        Operator operator = operation.getOperator();
+        if (operator == Ops.NOT) {
+            return rewrite((Predicate) operation.getArg(0));
+        }
+        if (operator == Ops.AND || operator == Ops.OR) {
+            List<Predicate> negated = new ArrayList<>();
+            for (Expression<?> arg : operation.getArgs()) {
+                Predicate inner = negate((Predicate) arg);
+                negated.add(inner == null ? ExpressionUtils.predicate(Ops.NOT, arg) : inner);
+            }
+            return rewrite(operator == Ops.AND ? ExpressionUtils.anyOf(negated) : ExpressionUtils.allOf(negated));
+        }
+        Operator opposite = NEGATED.get(operator);
+        if (opposite == null) {
+            return null;
+        }
+        return ExpressionUtils.predicate(opposite, operation.getArgs().toArray(new Expression<?>[0]));
+    }
+
+    // 인자 중 바뀐 것이 없으면 null
+    private static List<Predicate> rewriteAll(Operation<?> operation) {
+        List<Predicate> args = new ArrayList<>();
+        boolean changed = false;
+        for (Expression<?> arg : operation.getArgs()) {
+            Predicate rewritten = rewrite((Predicate) arg);
+            changed |= rewritten != arg;
+            args.add(rewritten);
+        }
+        return changed ? args : null;
+    }
+
+    // 같은 경로의 = 상수, in 상수 갈래를 in 하나로, 합칠 것이 없으면 null
+    private static List<Predicate> mergeEquals(List<Predicate> disjuncts) {
+        Map<Path<?>, Set<Object>> values = new LinkedHashMap<>();
+        Map<Path<?>, Integer> branches = new LinkedHashMap<>();
+        List<Predicate> others = new ArrayList<>();
+        for (Predicate disjunct : flatten(disjuncts)) {
+            Path<?> path = equalsPath(disjunct);
+            if (path == null) {
+                others.add(disjunct);
+                continue;
+            }
+            Object constant = ((Constant<?>) ((Operation<?>) disjunct).getArg(1)).getConstant();
+            Set<Object> set = values.computeIfAbsent(path, key -> new LinkedHashSet<>());
+            if (constant instanceof Collection) {
+                set.addAll((Collection<?>) constant);
+            } else {
+                set.add(constant);
+            }
+            branches.merge(path, 1, Integer::sum);
+        }
+        if (branches.values().stream().noneMatch(count -> count > 1)) {
+            return null;
+        }
+        List<Predicate> merged = new ArrayList<>();
+        values.forEach((path, set) -> merged.add(set.size() == 1
+                ? ExpressionUtils.predicate(Ops.EQ, path, Expressions.constant(set.iterator().next()))
+                : ExpressionUtils.predicate(Ops.IN, path, Expressions.constant(set))));
+        merged.addAll(others);
+        return merged;
+    }
+
+    private static Path<?> equalsPath(Predicate predicate) {
+        if (!(predicate instanceof Operation)) {
+            return null;
+        }
+        Operation<?> operation = (Operation<?>) predicate;
+        if ((operation.getOperator() != Ops.EQ && operation.getOperator() != Ops.IN)
+                || !(operation.getArg(0) instanceof Path) || !(operation.getArg(1) instanceof Constant)) {
+            return null;
+        }
+        return (Path<?>) operation.getArg(0);
+    }
+
+    private static List<Predicate> disjuncts(Operation<?> or) {
+        List<Predicate> disjuncts = new ArrayList<>();
+        for (Expression<?> arg : or.getArgs()) {
+            disjuncts.add((Predicate) arg);
+        }
+        return disjuncts;
+    }
+
+    private static List<Predicate> flatten(List<Predicate> disjuncts) {
+        List<Predicate> flat = new ArrayList<>();
+        for (Predicate disjunct : disjuncts) {
+            if (disjunct instanceof Operation && ((Operation<?>) disjunct).getOperator() == Ops.OR) {
+                flat.addAll(flatten(disjuncts((Operation<?>) disjunct)));
+            } else {
+                flat.add(disjunct);
+            }
+        }
+        return flat;
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.example.querydsl.guard;
+
+import com.example.querydsl.repository.support.TableVersions;
+
+import javax.persistence.Column;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 엔티티 테이블 모양 - @Table 인덱스와 컬럼 이름 (스프링 부트 기본 네이밍, snake_case)
+ */
+class TableModel {
+
+    private static final Map<Class<?>, TableModel> MODELS = new ConcurrentHashMap<>();
+
+    private final Class<?> entityType;
+    private final String table;
+    private final String idColumn;
+    private final Map<String, List<String>> indexes = new LinkedHashMap<>(); // 이름 -> 컬럼 순서 (PK 포함)
+
+    private TableModel(Class<?> entityType) {
+        this.entityType = entityType;
+        this.table = TableVersions.tableName(entityType);
+        this.idColumn = columnOf(idField(entityType));
+        indexes.put("primary_key", List.of(idColumn));
+        Table annotation = entityType.getAnnotation(Table.class);
+        if (annotation != null) {
+            for (Index index : annotation.indexes()) {
+                indexes.put(index.name(), Arrays.stream(index.columnList().split(","))
+                        .map(column -> column.trim().split("\\s+")[0].toLowerCase(Locale.ROOT)) // "age desc"
+                        .collect(Collectors.toList()));
+            }
+        }
+    }
+
+    static TableModel of(Class<?> entityType) {
+        return MODELS.computeIfAbsent(entityType, TableModel::new);
+    }
+
+    Class<?> getEntityType() {
+        return entityType;
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    String getIdColumn() {
+        return idColumn;
+    }
+
+    Map<String, List<String>> getIndexes() {
+        return indexes;
+    }
+
+    // 인덱스 첫 컬럼인지 (이 컬럼 조건만으로 인덱스를 탈 수 있는지)
+    boolean isLeading(String column) {
+        return indexes.values().stream().anyMatch(columns -> columns.get(0).equals(column));
+    }
+
+    // 프로퍼티 -> 컬럼, 연관관계면 조인 컬럼, 컬렉션 등 컬럼이 없으면 null
+    String column(String property) {
+        Field field = field(entityType, property);
+        if (field == null || (field.getAnnotations().length > 0 && !isColumn(field))) {
+            return null;
+        }
+        return columnOf(field);
+    }
+
+    // @ManyToOne, @OneToOne 대상 엔티티, 연관관계가 아니면 null
+    Class<?> association(String property) {
+        Field field = field(entityType, property);
+        if (field != null && (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class))) {
+            return field.getType();
+        }
+        return null;
+    }
+
+    boolean isId(String property) {
+        Field field = field(entityType, property);
+        return field != null && field.isAnnotationPresent(Id.class);
+    }
+
+    private static boolean isColumn(Field field) {
+        return field.isAnnotationPresent(Column.class) || field.isAnnotationPresent(Id.class)
+                || field.isAnnotationPresent(JoinColumn.class) || field.isAnnotationPresent(ManyToOne.class);
+    }
+
+    private static String columnOf(Field field) {
+        Column column = field.getAnnotation(Column.class);
+        if (column != null && !column.name().isEmpty()) {
+            return column.name().toLowerCase(Locale.ROOT);
+        }
+        JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+        if (joinColumn != null && !joinColumn.name().isEmpty()) {
+            return joinColumn.name().toLowerCase(Locale.ROOT);
+        }
+        return field.getName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+    private static Field idField(Class<?> entityType) {
+        for (Class<?> type = entityType; type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    return field;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No @Id in " + entityType.getName());
+    }
+
+    private static Field field(Class<?> entityType, String property) {
+        for (Class<?> type = entityType; type != null; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredField(property);
+            } catch (NoSuchFieldException e) {
+                // 상위 클래스에서 찾는다
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.example.querydsl.guard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 엔티티 테이블 통계 - 로우 수, 인덱스 컬럼별 서로 다른 값 수와 (숫자면) 최소/최대값 (PredicateCostEstimator용)
+ *
+ * 시작 시와 querydsl.predicate-guard.stats-refresh-interval마다 count(*), count(distinct 컬럼), min/max로 다시 센다.
+ * 세는 비용도 전체 스캔이므로 주기는 길게 두고, 가드를 켰을 때만(querydsl.predicate-guard.enabled) 센다.
+ * 시작 시에는 백그라운드에서 세므로 다 셀 때까지는 0 (비용 추정이 항상 허용)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "querydsl.predicate-guard", name = "enabled", havingValue = "true")
+public class TableStatistics implements DisposableBean {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final Map<String, Long> rows = new ConcurrentHashMap<>();
+    private final Map<String, Long> distinct = new ConcurrentHashMap<>(); // "테이블.컬럼"
+    private final Map<String, double[]> ranges = new ConcurrentHashMap<>(); // "테이블.컬럼" -> {min, max}
+    private final ExecutorService initializer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "table-statistics-init");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TableStatistics(EntityManagerFactory entityManagerFactory, ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long rows(String table) {
+        return rows.getOrDefault(table, 0L);
+    }
+
+    // 모르면 0
+    public long distinct(String table, String column) {
+        return distinct.getOrDefault(table + "." + column, 0L);
+    }
+
+    // 숫자 컬럼의 {min, max}, 모르면 null
+    public double[] range(String table, String column) {
+        return ranges.get(table + "." + column);
+    }
+
+    // 시작 스레드를 막지 않도록
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        initializer.execute(this::refresh);
+    }
+
+    // 동시에 하나만 - 먼저 시작한 갱신이 나중에 끝나 최신 통계를 덮어쓰지 않도록
+    @Scheduled(fixedDelayString = "${querydsl.predicate-guard.stats-refresh-interval:600000}",
+            initialDelayString = "${querydsl.predicate-guard.stats-refresh-interval:600000}")
+    public synchronized void refresh() {
+        JdbcTemplate jdbc = jdbcTemplate.getIfAvailable();
+        if (jdbc == null) {
+            return;
+        }
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            try {
+                refresh(jdbc, TableModel.of(entity.getJavaType()));
+            } catch (DataAccessException | IllegalArgumentException e) {
+                log.debug("Failed to refresh statistics of {}: {}", entity.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private void refresh(JdbcTemplate jdbc, TableModel model) {
+        String table = model.getTable();
+        Long count = jdbc.queryForObject("select count(*) from " + table, Long.class);
+        rows.put(table, count == null ? 0 : count);
+
+        Set<String> columns = new LinkedHashSet<>();
+        model.getIndexes().values().forEach(columns::addAll);
+        for (String column : columns) {
+            if (column.equals(model.getIdColumn())) {
+                distinct.put(table + "." + column, rows(table));
+                continue;
+            }
+            Object[] values = jdbc.queryForObject(
+                    "select count(distinct " + column + "), min(" + column + "), max(" + column + ") from " + table,
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getObject(2), rs.getObject(3)});
+            distinct.put(table + "." + column, (Long) values[0]);
+            if (values[1] instanceof Number && values[2] instanceof Number) {
+                ranges.put(table + "." + column,
+                        new double[]{((Number) values[1]).doubleValue(), ((Number) values[2]).doubleValue()});
+            } else {
+                ranges.remove(table + "." + column);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        initializer.shutdownNow();
+    }
+
+}
@@ -0,0 +1,392 @@
+package com.example.querydsl.memory;
+
+import com.example.querydsl.datasource.PrimaryRoute;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.EntityChangedEvent;
+import com.example.querydsl.entity.EntityCommittedEvent;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.memory.RowExpressionCompiler.RowValue;
+import com.example.querydsl.memory.RowExpressionCompiler.UnsupportedExpressionException;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 + 팀 메모리 조회 계층 (querydsl.memory-tier.enabled=true)
+ *
+ * 회원, 팀 로우 스냅샷에 대해 Querydsl Predicate/OrderSpecifier를 그대로 실행한다. (RowExpressionCompiler)
+ * 스냅샷은 커밋된 엔티티 변경(EntityCommittedEvent)으로 갱신하고, 벌크 연산 후에는 백그라운드에서 다시 읽는다.
+ *
+ * 다음 경우에는 빈 결과(Optional.empty)를 돌려주므로 호출한 쪽이 DB에서 조회한다.
+ * - 스냅샷 준비 전(다시 읽는 중), 회원 수가 max-rows 초과
+ * - 쓰기 트랜잭션 안 (커밋되지 않은 자기 변경이 보이지 않으므로)
+ * - 메모리에서 실행할 수 없는 표현식 (서브쿼리, 템플릿 등)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "querydsl.memory-tier", name = "enabled", havingValue = "true")
+public class InMemoryMemberStore implements DisposableBean {
+
+    public static final int ENTITY_LOOKUP_LIMIT = 1000; // findIds로 찾은 id로 엔티티를 조회하는 최대 건수
+
+    private static final int LOAD_CHUNK = 10_000;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxRows;
+    private final MeterRegistry registry;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "memory-tier-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private MemberSnapshot snapshot; // null이면 사용 불가
+    private List<EntityCommittedEvent> pending; // 다시 읽는 동안 커밋된 변경
+    private boolean rebuildScheduled;
+
+    public InMemoryMemberStore(JPAQueryFactory queryFactory,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry,
+                               @Value("${querydsl.memory-tier.max-rows:200000}") int maxRows) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxRows = maxRows;
+        this.registry = registry;
+        Gauge.builder("memory.tier.rows", this, InMemoryMemberStore::size).register(registry);
+    }
+
+    // 회원 + 팀 이름 (left join과 같다), offset/limit이 음수면 제한 없음
+    public Optional<List<MemberTeamDto>> find(Predicate where, List<OrderSpecifier<?>> orders, long offset, long limit) {
+        return select(where, false, orders, offset, limit, (rows, snapshot) -> rows.stream()
+                .map(row -> new MemberTeamDto(row.getId(), row.getUsername(), row.getAge(),
+                        row.getTeamId(), snapshot.teamName(row.getTeamId())))
+                .collect(Collectors.toList()));
+    }
+
+    // QuerydslPredicateExecutor 조건 (member.team.name 등은 묵시적 inner join)
+    public Optional<List<Long>> findIds(Predicate where, long limit) {
+        return select(where, true, List.of(), 0, limit, (rows, snapshot) -> rows.stream()
+                .map(MemberRow::getId)
+                .collect(Collectors.toList()));
+    }
+
+    public OptionalLong count(Predicate where, boolean innerJoinTeam) {
+        RowValue condition = compile(where, innerJoinTeam);
+        if (condition == null) {
+            return OptionalLong.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (!available()) {
+                return OptionalLong.empty();
+            }
+            record("hit");
+            return OptionalLong.of(snapshot.count(where, condition));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 메모리에서 답할 수 있으면 맞는 회원 수 (PredicateGuard가 비용 추정 대신 사용, 조회 메트릭에는 세지 않는다)
+    public OptionalLong matchCount(Predicate where) {
+        RowValue condition;
+        try {
+            condition = RowExpressionCompiler.compile(where, true);
+        } catch (UnsupportedExpressionException e) {
+            return OptionalLong.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (snapshot == null || TransactionSynchronizationManager.isActualTransactionActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(snapshot.count(where, condition));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return snapshot != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return snapshot == null ? 0 : snapshot.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private interface RowMapper<T> {
+        T map(List<MemberRow> rows, MemberSnapshot snapshot);
+    }
+
+    private <T> Optional<T> select(Predicate where, boolean innerJoinTeam, List<OrderSpecifier<?>> orders,
+                                   long offset, long limit, RowMapper<T> mapper) {
+        RowValue condition = compile(where, innerJoinTeam);
+        if (condition == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (!available()) {
+                return Optional.empty();
+            }
+            Comparator<MemberRow> order;
+            try {
+                order = orders.isEmpty() ? null : RowExpressionCompiler.comparator(orders, snapshot);
+            } catch (UnsupportedExpressionException e) {
+                record("unsupported");
+                return Optional.empty();
+            }
+            record("hit");
+            return Optional.of(mapper.map(snapshot.select(where, condition, order, offset, limit), snapshot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RowValue compile(Predicate where, boolean innerJoinTeam) {
+        try {
+            return RowExpressionCompiler.compile(where, innerJoinTeam);
+        } catch (UnsupportedExpressionException e) {
+            log.debug("Falling back to database: {}", e.getMessage());
+            record("unsupported");
+            return null;
+        }
+    }
+
+    // 읽기 락 안에서 호출
+    private boolean available() {
+        if (snapshot == null) {
+            record("not-ready");
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            record("write-transaction");
+            return false;
+        }
+        return true;
+    }
+
+    private void record(String result) {
+        Counter.builder("memory.tier.queries")
+                .description("Queries offered to the in-memory member tier")
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onCommitted(EntityCommittedEvent event) {
+        if (event.getEntityType() != Member.class && event.getEntityType() != Team.class) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else if (snapshot != null) {
+                apply(snapshot, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 벌크 연산은 커밋 후 다시 읽는다
+    @EventListener
+    public void onBulkChanged(EntityChangedEvent event) {
+        if (!event.isBulk() || (event.getEntityType() != Member.class && event.getEntityType() != Team.class)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        requestRebuild();
+                    }
+                }
+            });
+        } else {
+            requestRebuild();
+        }
+    }
+
+    public void requestRebuild() {
+        lock.writeLock().lock();
+        try {
+            snapshot = null;
+            if (!rebuildScheduled) {
+                rebuildScheduled = true;
+                rebuilder.execute(this::rebuildIfScheduled);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 그 사이 rebuild()를 직접 호출했으면 생략
+    private void rebuildIfScheduled() {
+        lock.readLock().lock();
+        try {
+            if (!rebuildScheduled) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuild();
+    }
+
+    // id 순서로 나눠 읽는다, 동시에 하나만
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                rebuildScheduled = false;
+                snapshot = null;
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // 벌크 연산 직후에도 다시 읽으므로 복제가 밀린 replica가 아닌 primary에서 (이후 보정이 없다)
+            MemberSnapshot loaded = PrimaryRoute.call(this::load);
+
+            lock.writeLock().lock();
+            try {
+                if (loaded != null) {
+                    pending.forEach(event -> apply(loaded, event)); // 읽는 도중 커밋된 변경 (다시 적용해도 같은 결과)
+                }
+                pending = null;
+                snapshot = rebuildScheduled ? null : loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private MemberSnapshot load() {
+        MemberSnapshot loaded = new MemberSnapshot();
+        try {
+            List<Tuple> teams = readOnlyTransaction.execute(status -> queryFactory
+                    .select(team.id, team.name)
+                    .from(team)
+                    .fetch());
+            teams.forEach(row -> loaded.putTeam(row.get(team.id), row.get(team.name)));
+
+            Long lastId = 0L;
+            while (lastId != null) {
+                Long from = lastId;
+                List<Tuple> rows = readOnlyTransaction.execute(status -> queryFactory
+                        .select(member.id, member.username, member.age, member.team.id)
+                        .from(member)
+                        .where(member.id.gt(from))
+                        .orderBy(member.id.asc())
+                        .limit(LOAD_CHUNK)
+                        .fetch());
+                for (Tuple row : rows) {
+                    loaded.put(new MemberRow(row.get(member.id), row.get(member.username),
+                            row.get(member.age), row.get(member.team.id)));
+                }
+                if (loaded.size() > maxRows) {
+                    log.warn("In-memory member tier disabled: more than {} members", maxRows);
+                    return null;
+                }
+                lastId = rows.size() < LOAD_CHUNK ? null : rows.get(rows.size() - 1).get(member.id);
+            }
+            log.info("In-memory member tier loaded {} members", loaded.size());
+            return loaded;
+        } catch (RuntimeException e) {
+            log.warn("Failed to load in-memory member tier, falling back to database", e);
+            return null;
+        }
+    }
+
+    private static void apply(MemberSnapshot snapshot, EntityCommittedEvent event) {
+        Long id = (Long) event.getId();
+        if (event.getEntityType() == Team.class) {
+            if (event.getType() == EntityCommittedEvent.Type.DELETE) {
+                snapshot.removeTeam(id);
+            } else {
+                snapshot.putTeam(id, (String) event.get("name"));
+            }
+            return;
+        }
+        if (event.getType() == EntityCommittedEvent.Type.DELETE) {
+            snapshot.remove(id);
+        } else {
+            snapshot.put(new MemberRow(id, (String) event.get("username"), (Integer) event.get("age"),
+                    teamId(event.get("team"))));
+        }
+    }
+
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+}
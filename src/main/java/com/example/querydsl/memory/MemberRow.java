@@ -0,0 +1,25 @@
+package com.example.querydsl.memory;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 메모리 스냅샷의 회원 로우 (팀 이름은 팀 id로 스냅샷에서 찾는다 - 팀 이름 변경 시 회원 로우는 그대로)
+ */
+@Getter
+@ToString
+class MemberRow {
+
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+
+    MemberRow(Long id, String username, int age, Long teamId) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.example.querydsl.memory;
+
+import com.example.querydsl.memory.RowExpressionCompiler.Field;
+import com.example.querydsl.memory.RowExpressionCompiler.RowValue;
+import com.example.querydsl.memory.RowExpressionCompiler.UnsupportedExpressionException;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 회원, 팀 로우와 보조 인덱스(username, age, team) - 동기화는 InMemoryMemberStore의 락으로
+ *
+ * where 절 최상위 and 조건 중 인덱스를 쓸 수 있는 조건(username =, age 범위, team id/name =, in)마다
+ * 후보 수를 세고 가장 적은 조건의 후보만 전체 조건으로 거른다. 쓸 수 있는 조건이 없으면 전체를 읽는다.
+ */
+class MemberSnapshot {
+
+    private final Map<Long, MemberRow> rows = new HashMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+    private final Map<String, Set<Long>> byUsername = new HashMap<>();
+    private final TreeMap<Integer, Set<Long>> byAge = new TreeMap<>();
+    private final Map<Long, Set<Long>> byTeam = new HashMap<>();
+
+    void put(MemberRow row) {
+        MemberRow old = rows.put(row.getId(), row);
+        if (old != null) {
+            unindex(old);
+        }
+        index(byUsername, row.getUsername(), row.getId());
+        index(byAge, row.getAge(), row.getId());
+        index(byTeam, row.getTeamId(), row.getId());
+    }
+
+    void remove(Long id) {
+        MemberRow old = rows.remove(id);
+        if (old != null) {
+            unindex(old);
+        }
+    }
+
+    void putTeam(Long teamId, String name) {
+        teamNames.put(teamId, name);
+    }
+
+    void removeTeam(Long teamId) {
+        teamNames.remove(teamId);
+    }
+
+    String teamName(Long teamId) {
+        return teamId == null ? null : teamNames.get(teamId);
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    // offset, limit이 음수면 제한 없음
+    List<MemberRow> select(Predicate where, RowValue condition, Comparator<MemberRow> order, long offset, long limit) {
+        List<MemberRow> matched = new ArrayList<>();
+        for (MemberRow row : candidates(where)) {
+            if (Boolean.TRUE.equals(condition.get(row, this))) {
+                matched.add(row);
+            }
+        }
+        // 정렬 값이 같으면 id 순서 (페이지 사이 순서 고정)
+        matched.sort((order == null ? (Comparator<MemberRow>) (a, b) -> 0 : order)
+                .thenComparing(MemberRow::getId));
+        int from = (int) Math.min(Math.max(offset, 0), matched.size());
+        int to = limit < 0 ? matched.size() : (int) Math.min(from + limit, matched.size());
+        return matched.subList(from, to);
+    }
+
+    long count(Predicate where, RowValue condition) {
+        long count = 0;
+        for (MemberRow row : candidates(where)) {
+            if (Boolean.TRUE.equals(condition.get(row, this))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Collection<MemberRow> candidates(Predicate where) {
+        List<Set<Long>> best = null;
+        long bestSize = Long.MAX_VALUE;
+        for (Predicate conjunct : RowExpressionCompiler.conjuncts(where)) {
+            List<Set<Long>> ids = indexLookup(conjunct);
+            if (ids != null) {
+                long size = ids.stream().mapToLong(Set::size).sum();
+                if (size < bestSize) {
+                    best = ids;
+                    bestSize = size;
+                }
+            }
+        }
+        if (best == null) {
+            return rows.values();
+        }
+        List<MemberRow> candidates = new ArrayList<>((int) bestSize);
+        for (Set<Long> ids : best) {
+            for (Long id : ids) {
+                candidates.add(rows.get(id));
+            }
+        }
+        return candidates;
+    }
+
+    // 인덱스로 찾을 수 있는 조건이면 후보 id 집합들(서로 겹치지 않음), 아니면 null
+    private List<Set<Long>> indexLookup(Predicate conjunct) {
+        if (!(conjunct instanceof Operation)) {
+            return null;
+        }
+        Operation<?> operation = (Operation<?>) conjunct;
+        List<Expression<?>> args = operation.getArgs();
+        if (args.size() < 2 || !(args.get(0) instanceof Path)) {
+            return null;
+        }
+        List<Object> values = new ArrayList<>();
+        for (Expression<?> arg : args.subList(1, args.size())) {
+            if (!(arg instanceof Constant)) {
+                return null;
+            }
+            values.add(RowExpressionCompiler.normalize(((Constant<?>) arg).getConstant()));
+        }
+        Field field;
+        try {
+            field = RowExpressionCompiler.field((Path<?>) args.get(0));
+        } catch (UnsupportedExpressionException e) {
+            return null;
+        }
+
+        Operator op = operation.getOperator();
+        Object value = values.get(0);
+        switch (field) {
+            case ID:
+                if (op == Ops.EQ) {
+                    Long id = ((Number) value).longValue();
+                    return List.of(rows.containsKey(id) ? Set.of(id) : Set.of());
+                }
+                return null;
+            case USERNAME:
+                return lookup(byUsername, op, value, v -> v);
+            case TEAM_ID:
+                return lookup(byTeam, op, value, v -> ((Number) v).longValue());
+            case TEAM_NAME:
+                if (op != Ops.EQ && op != Ops.IN) {
+                    return null;
+                }
+                Set<?> names = op == Ops.EQ ? Set.of(value) : (Set<?>) value;
+                List<Set<Long>> ids = new ArrayList<>();
+                teamNames.forEach((teamId, name) -> {
+                    if (names.contains(name)) {
+                        ids.add(byTeam.getOrDefault(teamId, Set.of()));
+                    }
+                });
+                return ids;
+            case AGE:
+                return ageLookup(op, values);
+            default:
+                return null;
+        }
+    }
+
+    private <K> List<Set<Long>> lookup(Map<K, Set<Long>> index, Operator op, Object value,
+                                       Function<Object, K> key) {
+        if (op == Ops.EQ) {
+            return List.of(index.getOrDefault(key.apply(value), Set.of()));
+        }
+        if (op == Ops.IN) {
+            List<Set<Long>> ids = new ArrayList<>();
+            for (Object element : (Set<?>) value) {
+                ids.add(index.getOrDefault(key.apply(element), Set.of()));
+            }
+            return ids;
+        }
+        return null;
+    }
+
+    private List<Set<Long>> ageLookup(Operator op, List<Object> values) {
+        if (op == Ops.IN) {
+            return lookup(byAge, op, values.get(0), v -> ((Number) v).intValue());
+        }
+        if (!(values.get(0) instanceof Number)) {
+            return null;
+        }
+        int age = ((Number) values.get(0)).intValue();
+        NavigableMap<Integer, Set<Long>> range;
+        if (op == Ops.EQ) {
+            range = byAge.subMap(age, true, age, true);
+        } else if (op == Ops.GT) {
+            range = byAge.tailMap(age, false);
+        } else if (op == Ops.GOE) {
+            range = byAge.tailMap(age, true);
+        } else if (op == Ops.LT) {
+            range = byAge.headMap(age, false);
+        } else if (op == Ops.LOE) {
+            range = byAge.headMap(age, true);
+        } else if (op == Ops.BETWEEN && values.get(1) instanceof Number) {
+            int to = ((Number) values.get(1)).intValue();
+            range = age <= to ? byAge.subMap(age, true, to, true) : byAge.subMap(age, true, age, false);
+        } else {
+            return null;
+        }
+        return new ArrayList<>(range.values());
+    }
+
+    private void unindex(MemberRow row) {
+        unindex(byUsername, row.getUsername(), row.getId());
+        unindex(byAge, row.getAge(), row.getId());
+        unindex(byTeam, row.getTeamId(), row.getId());
+    }
+
+    private static <K> void index(Map<K, Set<Long>> index, K key, Long id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static <K> void unindex(Map<K, Set<Long>> index, K key, Long id) {
+        Set<Long> ids = key == null ? null : index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+}
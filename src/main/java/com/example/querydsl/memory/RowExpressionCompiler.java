@@ -0,0 +1,397 @@
+package com.example.querydsl.memory;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathType;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Querydsl 표현식(Predicate, OrderSpecifier)을 MemberRow에 대해 실행할 수 있는 함수로 변환
+ *
+ * SQL과 같은 3값 논리 - 비교 대상이 null이면 결과도 null(unknown)이고 where에서는 true만 통과
+ * 지원 경로 : Member(id, username, age, team, team.id, team.name), Team(id, name)
+ * 지원 연산 : and/or/not, 비교, between, in, null 검사, 문자열(startsWith, endsWith, contains, like, 대소문자 무시 포함), lower/upper
+ * 그 밖의 표현식(서브쿼리, 템플릿, Param 등)은 UnsupportedExpressionException - 호출한 쪽이 DB로 보낸다
+ */
+class RowExpressionCompiler implements Visitor<RowExpressionCompiler.RowValue, Void> {
+
+    enum Field {ID, USERNAME, AGE, TEAM_ID, TEAM_NAME}
+
+    @FunctionalInterface
+    interface RowValue {
+        Object get(MemberRow row, MemberSnapshot snapshot);
+    }
+
+    static class UnsupportedExpressionException extends RuntimeException {
+        UnsupportedExpressionException(Object expression) {
+            super("Not supported in memory: " + expression);
+        }
+    }
+
+    private boolean joinsTeam; // member.team.name 사용 - JPQL 묵시적 조인(inner join)
+
+    // innerJoinTeam - member.team.name을 쓰면 팀 없는 회원 제외 (QuerydslPredicateExecutor의 묵시적 조인)
+    static RowValue compile(Predicate predicate, boolean innerJoinTeam) {
+        RowExpressionCompiler compiler = new RowExpressionCompiler();
+        RowValue where = compiler.where(predicate);
+        if (innerJoinTeam && compiler.joinsTeam) {
+            return (row, snapshot) -> row.getTeamId() == null ? Boolean.FALSE : where.get(row, snapshot);
+        }
+        return where;
+    }
+
+    static Comparator<MemberRow> comparator(List<OrderSpecifier<?>> orders, MemberSnapshot snapshot) {
+        Comparator<MemberRow> comparator = (a, b) -> 0;
+        for (OrderSpecifier<?> order : orders) {
+            RowValue value = order.getTarget().accept(new RowExpressionCompiler(), null);
+            boolean asc = order.isAscending();
+            // 기본 null 순서는 H2와 같이 가장 작은 값으로 (asc면 처음, desc면 마지막)
+            boolean nullsFirst = order.getNullHandling() == OrderSpecifier.NullHandling.Default
+                    ? asc : order.getNullHandling() == OrderSpecifier.NullHandling.NullsFirst;
+            comparator = comparator.thenComparing((a, b) -> {
+                Object left = value.get(a, snapshot);
+                Object right = value.get(b, snapshot);
+                if (left == null || right == null) {
+                    return left == right ? 0 : (left == null) == nullsFirst ? -1 : 1;
+                }
+                int result = compare(left, right);
+                return asc ? result : -result;
+            });
+        }
+        return comparator;
+    }
+
+    // where 절 최상위 and 조건들 (인덱스 후보 선택용)
+    static List<Predicate> conjuncts(Predicate predicate) {
+        List<Predicate> conjuncts = new ArrayList<>();
+        collectConjuncts(predicate, conjuncts);
+        return conjuncts;
+    }
+
+    private static void collectConjuncts(Predicate predicate, List<Predicate> conjuncts) {
+        if (predicate instanceof BooleanBuilder) {
+            Predicate value = ((BooleanBuilder) predicate).getValue();
+            if (value != null) {
+                collectConjuncts(value, conjuncts);
+            }
+        } else if (predicate instanceof Operation && ((Operation<?>) predicate).getOperator() == Ops.AND) {
+            for (Expression<?> arg : ((Operation<?>) predicate).getArgs()) {
+                collectConjuncts((Predicate) arg, conjuncts);
+            }
+        } else if (predicate != null) {
+            conjuncts.add(predicate);
+        }
+    }
+
+    static Field field(Path<?> path) {
+        List<String> chain = new ArrayList<>();
+        Path<?> current = path;
+        while (current.getMetadata().getParent() != null) {
+            if (current.getMetadata().getPathType() != PathType.PROPERTY) {
+                throw new UnsupportedExpressionException(path);
+            }
+            chain.add(0, current.getMetadata().getName());
+            current = current.getMetadata().getParent();
+        }
+        String property = String.join(".", chain);
+        if (current.getType() == Member.class) {
+            switch (property) {
+                case "":
+                case "id":
+                    return Field.ID;
+                case "username":
+                    return Field.USERNAME;
+                case "age":
+                    return Field.AGE;
+                case "team":
+                case "team.id":
+                    return Field.TEAM_ID;
+                case "team.name":
+                    return Field.TEAM_NAME;
+                default:
+            }
+        } else if (current.getType() == Team.class) {
+            switch (property) {
+                case "":
+                case "id":
+                    return Field.TEAM_ID;
+                case "name":
+                    return Field.TEAM_NAME;
+                default:
+            }
+        }
+        throw new UnsupportedExpressionException(path);
+    }
+
+    // 엔티티 상수는 id로 비교 (member.team.eq(team))
+    static Object normalize(Object value) {
+        if (value instanceof HibernateProxy) {
+            return ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+        }
+        if (value instanceof Team) {
+            return ((Team) value).getId();
+        }
+        if (value instanceof Member) {
+            return ((Member) value).getId();
+        }
+        if (value instanceof Collection) {
+            Set<Object> values = new HashSet<>();
+            for (Object element : (Collection<?>) value) {
+                values.add(normalizeNumber(normalize(element)));
+            }
+            return values;
+        }
+        return value;
+    }
+
+    private RowValue where(Predicate predicate) {
+        if (predicate == null) {
+            return (row, snapshot) -> Boolean.TRUE;
+        }
+        if (predicate instanceof BooleanBuilder && ((BooleanBuilder) predicate).getValue() == null) {
+            return (row, snapshot) -> Boolean.TRUE;
+        }
+        return predicate.accept(this, null);
+    }
+
+    @Override
+    public RowValue visit(Constant<?> expr, Void context) {
+        Object value = normalize(expr.getConstant());
+        return (row, snapshot) -> value;
+    }
+
+    @Override
+    public RowValue visit(Path<?> expr, Void context) {
+        switch (field(expr)) {
+            case ID:
+                return (row, snapshot) -> row.getId();
+            case USERNAME:
+                return (row, snapshot) -> row.getUsername();
+            case AGE:
+                return (row, snapshot) -> row.getAge();
+            case TEAM_ID:
+                return (row, snapshot) -> row.getTeamId();
+            default:
+                if (expr.getRoot().getType() == Member.class) {
+                    joinsTeam = true;
+                }
+                return (row, snapshot) -> snapshot.teamName(row.getTeamId());
+        }
+    }
+
+    @Override
+    public RowValue visit(Operation<?> expr, Void context) {
+        Operator op = expr.getOperator();
+        List<Expression<?>> args = expr.getArgs();
+        RowValue[] values = new RowValue[args.size()];
+        for (int i = 0; i < values.length; i++) {
+            if (!(op == Ops.LIKE || op == Ops.LIKE_IC) || i == 0) {
+                values[i] = args.get(i).accept(this, null);
+            }
+        }
+        RowValue a = values[0];
+        RowValue b = values.length > 1 ? values[1] : null;
+
+        if (op == Ops.AND) {
+            return (row, snapshot) -> and(a.get(row, snapshot), b.get(row, snapshot));
+        } else if (op == Ops.OR) {
+            return (row, snapshot) -> or(a.get(row, snapshot), b.get(row, snapshot));
+        } else if (op == Ops.NOT) {
+            return (row, snapshot) -> not(a.get(row, snapshot));
+        } else if (op == Ops.EQ) {
+            return compare(a, b, result -> result == 0);
+        } else if (op == Ops.NE) {
+            return compare(a, b, result -> result != 0);
+        } else if (op == Ops.GT) {
+            return compare(a, b, result -> result > 0);
+        } else if (op == Ops.GOE) {
+            return compare(a, b, result -> result >= 0);
+        } else if (op == Ops.LT) {
+            return compare(a, b, result -> result < 0);
+        } else if (op == Ops.LOE) {
+            return compare(a, b, result -> result <= 0);
+        } else if (op == Ops.BETWEEN) {
+            RowValue from = compare(a, b, result -> result >= 0);
+            RowValue to = compare(a, values[2], result -> result <= 0);
+            return (row, snapshot) -> and(from.get(row, snapshot), to.get(row, snapshot));
+        } else if (op == Ops.IN) {
+            return (row, snapshot) -> in(a.get(row, snapshot), b.get(row, snapshot));
+        } else if (op == Ops.NOT_IN) {
+            return (row, snapshot) -> not(in(a.get(row, snapshot), b.get(row, snapshot)));
+        } else if (op == Ops.IS_NULL) {
+            return (row, snapshot) -> a.get(row, snapshot) == null;
+        } else if (op == Ops.IS_NOT_NULL) {
+            return (row, snapshot) -> a.get(row, snapshot) != null;
+        } else if (op == Ops.STARTS_WITH) {
+            return strings(a, b, false, String::startsWith);
+        } else if (op == Ops.STARTS_WITH_IC) {
+            return strings(a, b, true, String::startsWith);
+        } else if (op == Ops.ENDS_WITH) {
+            return strings(a, b, false, String::endsWith);
+        } else if (op == Ops.ENDS_WITH_IC) {
+            return strings(a, b, true, String::endsWith);
+        } else if (op == Ops.STRING_CONTAINS) {
+            return strings(a, b, false, String::contains);
+        } else if (op == Ops.STRING_CONTAINS_IC) {
+            return strings(a, b, true, String::contains);
+        } else if (op == Ops.EQ_IGNORE_CASE) {
+            return strings(a, b, true, String::equals);
+        } else if (op == Ops.LIKE || op == Ops.LIKE_IC) {
+            Pattern pattern = likePattern(args.get(1), op == Ops.LIKE_IC);
+            return (row, snapshot) -> {
+                Object value = a.get(row, snapshot);
+                return value == null ? null : pattern.matcher((String) value).matches();
+            };
+        } else if (op == Ops.LOWER) {
+            return (row, snapshot) -> {
+                Object value = a.get(row, snapshot);
+                return value == null ? null : ((String) value).toLowerCase(Locale.ROOT);
+            };
+        } else if (op == Ops.UPPER) {
+            return (row, snapshot) -> {
+                Object value = a.get(row, snapshot);
+                return value == null ? null : ((String) value).toUpperCase(Locale.ROOT);
+            };
+        }
+        throw new UnsupportedExpressionException(expr);
+    }
+
+    @Override
+    public RowValue visit(FactoryExpression<?> expr, Void context) {
+        throw new UnsupportedExpressionException(expr);
+    }
+
+    @Override
+    public RowValue visit(ParamExpression<?> expr, Void context) {
+        throw new UnsupportedExpressionException(expr);
+    }
+
+    @Override
+    public RowValue visit(SubQueryExpression<?> expr, Void context) {
+        throw new UnsupportedExpressionException(expr);
+    }
+
+    @Override
+    public RowValue visit(TemplateExpression<?> expr, Void context) {
+        throw new UnsupportedExpressionException(expr);
+    }
+
+    private interface ComparisonResult {
+        boolean test(int result);
+    }
+
+    private interface StringTest {
+        boolean test(String value, String operand);
+    }
+
+    private static RowValue compare(RowValue a, RowValue b, ComparisonResult test) {
+        return (row, snapshot) -> {
+            Object left = a.get(row, snapshot);
+            Object right = b.get(row, snapshot);
+            return left == null || right == null ? null : test.test(compare(left, right));
+        };
+    }
+
+    private static RowValue strings(RowValue a, RowValue b, boolean ignoreCase, StringTest test) {
+        return (row, snapshot) -> {
+            Object value = a.get(row, snapshot);
+            Object operand = b.get(row, snapshot);
+            if (value == null || operand == null) {
+                return null;
+            }
+            return ignoreCase
+                    ? test.test(((String) value).toLowerCase(Locale.ROOT), ((String) operand).toLowerCase(Locale.ROOT))
+                    : test.test((String) value, (String) operand);
+        };
+    }
+
+    // 정수끼리는 long, 그 밖의 숫자는 double로 비교 (Integer 컬럼과 Long 상수 등)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compare(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            Object l = normalizeNumber(left);
+            Object r = normalizeNumber(right);
+            if (l instanceof Long && r instanceof Long) {
+                return Long.compare((Long) l, (Long) r);
+            }
+            return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+        }
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private static Object normalizeNumber(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    private static Boolean in(Object value, Object values) {
+        if (value == null) {
+            return null;
+        }
+        return ((Set<?>) values).contains(normalizeNumber(value));
+    }
+
+    private static Boolean and(Object a, Object b) {
+        if (Boolean.FALSE.equals(a) || Boolean.FALSE.equals(b)) {
+            return false;
+        }
+        return a == null || b == null ? null : Boolean.TRUE;
+    }
+
+    private static Boolean or(Object a, Object b) {
+        if (Boolean.TRUE.equals(a) || Boolean.TRUE.equals(b)) {
+            return true;
+        }
+        return a == null || b == null ? null : Boolean.FALSE;
+    }
+
+    private static Boolean not(Object a) {
+        return a == null ? null : !(Boolean) a;
+    }
+
+    // SQL like 패턴 (%, _) -> 정규식, 상수 패턴만 지원
+    private static Pattern likePattern(Expression<?> pattern, boolean ignoreCase) {
+        if (!(pattern instanceof Constant)) {
+            throw new UnsupportedExpressionException(pattern);
+        }
+        String like = String.valueOf(((Constant<?>) pattern).getConstant());
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char ch : like.toCharArray()) {
+            if (ch == '%' || ch == '_') {
+                regex.append(Pattern.quote(literal.toString())).append(ch == '%' ? ".*" : ".");
+                literal.setLength(0);
+            } else {
+                literal.append(ch);
+            }
+        }
+        regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString(), ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.DOTALL : Pattern.DOTALL);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.example.querydsl.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * HTTP 요청별 SQL 실행 수 집계, 같은 SQL을 반복 실행하는 요청(N+1 의심) 경고
+ * ex) 회원 목록을 돌면서 member.team 지연 로딩 -> select ... from team where team_id=? 반복
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    private final int repeatedThreshold;
+
+    public QueryCountFilter(MeterRegistry registry,
+                            @Value("${querydsl.metrics.repeated-statement-threshold:5}") int repeatedThreshold) {
+        this.registry = registry;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try (StatementScope scope = StatementScope.open(true)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                if (request.isAsyncStarted()) {
+                    recordOnComplete(request, scope);
+                } else {
+                    record(request.getMethod(), uriPattern(request), scope);
+                }
+            }
+        }
+    }
+
+    // 비동기 처리(StreamingResponseBody 등)는 필터가 끝난 뒤 작업 스레드에서 SQL을 실행하므로 응답이 끝날 때 기록
+    // (비동기 디스패치는 이 필터를 다시 거치지 않는다, 작업 스레드에서는 StatementScope.attach로 이 범위를 연결할 것)
+    private void recordOnComplete(HttpServletRequest request, StatementScope scope) {
+        String method = request.getMethod();
+        String uri = uriPattern(request);
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                record(method, uri, scope);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private void record(String method, String uri, StatementScope scope) {
+        DistributionSummary.builder("http.request.statements")
+                .description("JDBC statements executed per HTTP request")
+                .tag("uri", uri)
+                .register(registry)
+                .record(scope.getStatementCount());
+
+        Map<String, Integer> repeated = scope.getRepeatedStatements(repeatedThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("http.request.repeated.statements")
+                    .description("HTTP requests that ran an identical statement repeatedly (N+1 suspect)")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .increment();
+            repeated.forEach((sql, count) ->
+                    log.warn("Repeated statement in {} {} ({} times): {}", method, uri, count, sql));
+        }
+    }
+
+    // 태그 수가 늘어나지 않도록 실제 URI 대신 매핑 패턴 사용
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+
+}
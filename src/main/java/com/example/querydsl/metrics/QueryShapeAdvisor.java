@@ -0,0 +1,242 @@
+package com.example.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 쿼리 모양 인덱스 어드바이저
+ *
+ * 실행된 select를 모양(바인딩 전 SQL)별로 횟수, 실행 시간과 함께 모아 두고,
+ * 리포트 시점에 모양마다 바인딩 전 SQL로(파라미터는 null) EXPLAIN을 돌려 인덱스 없이 전체를 읽는 테이블을 찾는다.
+ * 바인딩 값(회원 이름 등)은 기록하지 않으므로 리포트, 실행 계획에 남지 않는다.
+ * 전체 스캔 테이블은 where 조건(동등 조건 컬럼 먼저, 범위 조건 컬럼 하나)과 order by 컬럼으로 인덱스 DDL을 추천한다.
+ * 실행 계획 해석은 H2(tableScan), PostgreSQL(Seq Scan)만 지원
+ *
+ * 확인 : GET /actuator/queryshapes, 초기화 : DELETE /actuator/queryshapes
+ * (웹 노출은 기본으로 꺼져 있다 - management.endpoints.web.exposure.include에 queryshapes 추가)
+ */
+@Component
+public class QueryShapeAdvisor extends SimpleJdbcEventListener {
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    // H2 : "MEMBER0_" /* PUBLIC.MEMBER.tableScan */
+    private static final Pattern H2_TABLE_SCAN =
+            Pattern.compile("\"?(\\w+)\"?\\s*/\\*\\s*\\w+\\.(\\w+)\\.tableScan", Pattern.CASE_INSENSITIVE);
+    // PostgreSQL : Seq Scan on member member0_
+    private static final Pattern PG_SEQ_SCAN =
+            Pattern.compile("Seq Scan on (\\w+)(?: (\\w+))?", Pattern.CASE_INSENSITIVE);
+
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final int maxShapes;
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public QueryShapeAdvisor(ObjectProvider<JdbcTemplate> jdbcTemplate,
+                             @Value("${querydsl.query-shapes.max-shapes:500}") int maxShapes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (e != null || sql == null || !isSelect(sql)) {
+            return;
+        }
+        Shape shape = shapes.get(sql);
+        if (shape == null) {
+            if (shapes.size() >= maxShapes) {
+                dropped.increment();
+                return;
+            }
+            shape = shapes.computeIfAbsent(sql, Shape::new);
+        }
+        shape.record(timeElapsedNanos);
+    }
+
+    // 누적 실행 시간이 큰 순서
+    public List<QueryShapeReport> report() {
+        JdbcTemplate jdbc = jdbcTemplate.getIfAvailable();
+        return shapes.values().stream()
+                .sorted(Comparator.comparingLong(Shape::getTotalNanos).reversed())
+                .map(shape -> shape.toReport(explain(jdbc, shape.sql)))
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private static String explain(JdbcTemplate jdbc, String sql) {
+        if (jdbc == null) {
+            return "";
+        }
+        try {
+            String statement = stripComments(sql);
+            return jdbc.queryForList("explain " + statement, new Object[parameterCount(statement)]).stream()
+                    .map(row -> row.values().stream().map(String::valueOf).collect(Collectors.joining(" ")))
+                    .collect(Collectors.joining("\n"));
+        } catch (DataAccessException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    // 문자열 리터럴 밖의 ? 개수
+    static int parameterCount(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 실행 계획에서 전체 스캔 테이블과 SQL 상의 별칭
+    static List<String[]> fullScans(String plan) {
+        List<String[]> scans = new ArrayList<>();
+        Matcher h2 = H2_TABLE_SCAN.matcher(plan);
+        while (h2.find()) {
+            scans.add(new String[]{h2.group(2), h2.group(1)});
+        }
+        Matcher pg = PG_SEQ_SCAN.matcher(plan);
+        while (pg.find()) {
+            scans.add(new String[]{pg.group(1), pg.group(2) == null ? pg.group(1) : pg.group(2)});
+        }
+        return scans;
+    }
+
+    // 동등 조건 컬럼 -> 범위 조건 컬럼 하나 -> (범위 조건이 없으면) 정렬 컬럼
+    static String suggestIndex(String sql, String table, String alias) {
+        String body = stripComments(sql).toLowerCase(Locale.ROOT);
+        String where = section(body, " where ", " group by ", " order by ", " limit ", " offset ", " fetch ");
+        String orderBy = section(body, " order by ", " limit ", " offset ", " fetch ");
+        String prefix = "\\b" + Pattern.quote(alias.toLowerCase(Locale.ROOT)) + "\\.(\\w+)";
+
+        Set<String> equality = new LinkedHashSet<>();
+        Set<String> range = new LinkedHashSet<>();
+        Matcher condition = Pattern.compile(prefix + "\\s*(<>|!=|>=|<=|=|>|<|like\\b|in\\b|between\\b|is\\b)").matcher(where);
+        while (condition.find()) {
+            String operator = condition.group(2);
+            if (operator.equals("=") || operator.equals("in") || operator.equals("is")) {
+                equality.add(condition.group(1));
+            } else if (!operator.equals("<>") && !operator.equals("!=")) {
+                range.add(condition.group(1));
+            }
+        }
+
+        List<String> columns = new ArrayList<>(equality);
+        range.stream().filter(column -> !columns.contains(column)).findFirst().ifPresent(columns::add);
+        if (range.isEmpty()) {
+            Matcher order = Pattern.compile(prefix).matcher(orderBy);
+            while (order.find()) {
+                if (!columns.contains(order.group(1))) {
+                    columns.add(order.group(1));
+                }
+            }
+        }
+        if (columns.isEmpty()) {
+            return null;
+        }
+        String tableName = table.toLowerCase(Locale.ROOT);
+        return "create index idx_" + tableName + "_" + String.join("_", columns)
+                + " on " + tableName + " (" + String.join(", ", columns) + ");";
+    }
+
+    private static String section(String sql, String start, String... ends) {
+        int from = sql.indexOf(start);
+        if (from < 0) {
+            return "";
+        }
+        from += start.length();
+        int to = sql.length();
+        for (String end : ends) {
+            int index = sql.indexOf(end, from);
+            if (index >= 0 && index < to) {
+                to = index;
+            }
+        }
+        return sql.substring(from, to);
+    }
+
+    private static String stripComments(String sql) {
+        return COMMENT.matcher(sql).replaceAll(" ").trim();
+    }
+
+    // 앞쪽 주석(use_sql_comments)은 건너뛰고 select로 시작하는지
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading();
+        while (trimmed.startsWith("/*")) {
+            int end = trimmed.indexOf("*/");
+            if (end < 0) {
+                return false;
+            }
+            trimmed = trimmed.substring(end + 2).stripLeading();
+        }
+        return trimmed.regionMatches(true, 0, "select", 0, 6);
+    }
+
+    private static class Shape {
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        QueryShapeReport toReport(String plan) {
+            List<String[]> scans = fullScans(plan);
+            List<String> tables = scans.stream().map(scan -> scan[0]).distinct().collect(Collectors.toList());
+            List<String> indexes = scans.stream()
+                    .map(scan -> suggestIndex(sql, scan[0], scan[1]))
+                    .filter(ddl -> ddl != null)
+                    .distinct()
+                    .collect(Collectors.toList());
+            long executions = count.sum();
+            double avgMillis = executions == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / executions;
+            return new QueryShapeReport(stripComments(sql), executions, avgMillis, maxNanos.get() / 1_000_000.0,
+                    tables, indexes, plan);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.example.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/queryshapes - 쿼리 모양별 통계, 전체 스캔 여부, 추천 인덱스
+ */
+@Component
+@Endpoint(id = "queryshapes")
+@RequiredArgsConstructor
+public class QueryShapeEndpoint {
+
+    private final QueryShapeAdvisor queryShapeAdvisor;
+
+    @ReadOperation
+    public List<QueryShapeReport> shapes() {
+        return queryShapeAdvisor.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryShapeAdvisor.reset();
+    }
+
+}
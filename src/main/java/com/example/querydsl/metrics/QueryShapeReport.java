@@ -0,0 +1,29 @@
+package com.example.querydsl.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 쿼리 모양(파라미터를 뺀 SQL)별 실행 통계와 실행 계획
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class QueryShapeReport {
+
+    private final String sql;
+    private final long count;
+    private final double avgMillis;
+    private final double maxMillis;
+    private final List<String> fullScanTables; // 인덱스 없이 전체를 읽는 테이블
+    private final List<String> suggestedIndexes; // 추천 인덱스 DDL
+    private final String plan;
+
+    public boolean isFullScan() {
+        return !fullScanTables.isEmpty();
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.example.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드별 메트릭
+ * - repository.invocations : 호출 시간
+ * - repository.statements  : 호출 한번에 실행된 SQL 수
+ * - repository.rows        : 반환 로우 수
+ * - repository.db.time     : 호출 한번의 SQL 실행 시간 합
+ * 리포지토리 안에서 다른 리포지토리를 부르면 바깥 호출만 기록한다.
+ * 대상은 @Repository 빈과 스프링 데이터 리포지토리(태그는 리포지토리 인터페이스 이름)만 - 캐시 등 지원 컴포넌트는 제외
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Around("(@within(org.springframework.stereotype.Repository)"
+            + " || this(org.springframework.data.repository.Repository))"
+            + " && execution(public * *(..)) && !execution(* set*(..)) && !execution(void validate())")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (RepositoryCall.inProgress()) {
+            return joinPoint.proceed();
+        }
+
+        String repository = repositoryName(joinPoint.getTarget());
+        String method = joinPoint.getSignature().getName();
+        String outcome = "success";
+        Object result = null;
+        long start = System.nanoTime();
+        try (StatementScope scope = StatementScope.open(false); RepositoryCall call = RepositoryCall.begin()) {
+            try {
+                result = joinPoint.proceed();
+                return result;
+            } catch (Throwable e) {
+                outcome = "error";
+                throw e;
+            } finally {
+                record(repository, method, outcome, System.nanoTime() - start, scope, result);
+            }
+        }
+    }
+
+    private void record(String repository, String method, String outcome,
+                        long elapsedNanos, StatementScope scope, Object result) {
+        Timer.builder("repository.invocations")
+                .tags("repository", repository, "method", method, "outcome", outcome)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Timer.builder("repository.db.time")
+                .tags("repository", repository, "method", method)
+                .register(registry)
+                .record(scope.getElapsedNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("repository.statements")
+                .tags("repository", repository, "method", method)
+                .register(registry)
+                .record(scope.getStatementCount());
+        long rows = rows(result);
+        if (rows >= 0) {
+            DistributionSummary.builder("repository.rows")
+                    .tags("repository", repository, "method", method)
+                    .register(registry)
+                    .record(rows);
+        }
+    }
+
+    // 스프링 데이터 리포지토리는 구현 클래스(SimpleJpaRepository)가 아닌 인터페이스 이름 (MemberRepository)
+    private static String repositoryName(Object target) {
+        if (target instanceof org.springframework.data.repository.Repository) {
+            for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(target)) {
+                if (org.springframework.data.repository.Repository.class.isAssignableFrom(type)) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return AopUtils.getTargetClass(target).getSimpleName();
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    /**
+     * 현재 스레드에서 측정 중인 리포지토리 호출 표시
+     */
+    private static class RepositoryCall implements AutoCloseable {
+
+        private static final ThreadLocal<Boolean> IN_PROGRESS = new ThreadLocal<>();
+
+        static boolean inProgress() {
+            return IN_PROGRESS.get() != null;
+        }
+
+        static RepositoryCall begin() {
+            IN_PROGRESS.set(Boolean.TRUE);
+            return new RepositoryCall();
+        }
+
+        @Override
+        public void close() {
+            IN_PROGRESS.remove();
+        }
+    }
+
+}
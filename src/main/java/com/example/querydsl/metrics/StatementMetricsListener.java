@@ -0,0 +1,42 @@
+package com.example.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy JDBC 이벤트 리스너 - 모든 SQL 실행 시간을 집계하고 열려 있는 StatementScope에 기록
+ * (p6spy-spring-boot-starter가 JdbcEventListener 빈을 자동 등록, SQL 로그 출력과는 별개)
+ */
+@Component
+public class StatementMetricsListener extends SimpleJdbcEventListener {
+
+    private final Timer successTimer;
+    private final Timer errorTimer;
+
+    public StatementMetricsListener(MeterRegistry registry) {
+        this.successTimer = statementTimer(registry, "success");
+        this.errorTimer = statementTimer(registry, "error");
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        (e == null ? successTimer : errorTimer).record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+        if (StatementScope.isOpen()) {
+            StatementScope.record(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+
+    private static Timer statementTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("db.statements")
+                .description("JDBC statement execution time")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+}
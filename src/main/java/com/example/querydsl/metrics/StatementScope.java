@@ -0,0 +1,117 @@
+package com.example.querydsl.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 현재 스레드에서 실행된 SQL 집계 범위 (HTTP 요청, 리포지토리 메서드 호출)
+ * 범위는 중첩될 수 있고, 실행된 SQL은 열려 있는 모든 범위에 기록된다.
+ * 작업을 다른 스레드에 넘길 때는 current()로 얻은 범위를 작업 스레드에서 attach()한다.
+ *
+ * try (StatementScope scope = StatementScope.open(true)) { ... scope.getStatementCount() }
+ */
+public class StatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<Deque<StatementScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final int MAX_DISTINCT_STATEMENTS = 1000;
+
+    private final Map<String, Integer> statementCounts; // null이면 SQL별 집계 안 함
+    private long statementCount;
+    private long elapsedNanos;
+
+    private StatementScope(boolean countByStatement) {
+        this.statementCounts = countByStatement ? new HashMap<>() : null;
+    }
+
+    // countByStatement - 같은 SQL 반복 실행(N+1) 확인용으로 SQL별 실행 횟수도 센다
+    public static StatementScope open(boolean countByStatement) {
+        StatementScope scope = new StatementScope(countByStatement);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    public static boolean isOpen() {
+        return !SCOPES.get().isEmpty();
+    }
+
+    // 현재 스레드에 열려 있는 범위 (안쪽 범위부터)
+    public static List<StatementScope> current() {
+        return List.copyOf(SCOPES.get());
+    }
+
+    // 다른 스레드에서 얻은 범위를 현재 스레드에도 연결 - 반환값을 닫으면 연결만 끊는다
+    public static Attachment attach(List<StatementScope> scopes) {
+        Deque<StatementScope> current = SCOPES.get();
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            current.push(scopes.get(i));
+        }
+        return new Attachment(scopes);
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        for (StatementScope scope : SCOPES.get()) {
+            scope.add(sql, elapsedNanos);
+        }
+    }
+
+    // 연결된 작업 스레드에서도 기록하므로 동기화
+    private synchronized void add(String sql, long elapsedNanos) {
+        statementCount++;
+        this.elapsedNanos += elapsedNanos;
+        if (statementCounts != null
+                && (statementCounts.size() < MAX_DISTINCT_STATEMENTS || statementCounts.containsKey(sql))) {
+            statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public synchronized long getStatementCount() {
+        return statementCount;
+    }
+
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // threshold번 이상 실행된 SQL
+    public synchronized Map<String, Integer> getRepeatedStatements(int threshold) {
+        if (statementCounts == null) {
+            return Collections.emptyMap();
+        }
+        return statementCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Override
+    public void close() {
+        detach(this);
+    }
+
+    private static void detach(StatementScope scope) {
+        Deque<StatementScope> scopes = SCOPES.get();
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    public static class Attachment implements AutoCloseable {
+
+        private final List<StatementScope> scopes;
+
+        private Attachment(List<StatementScope> scopes) {
+            this.scopes = scopes;
+        }
+
+        @Override
+        public void close() {
+            scopes.forEach(StatementScope::detach);
+        }
+    }
+
+}
@@ -1,14 +1,46 @@
 package com.example.querydsl.repository;
 
 import com.example.querydsl.entity.Member;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
+// 인터페이스의 @Transactional은 이 인터페이스에 선언(재선언)된 메서드에만 적용된다
+// - 커스텀 메서드(search 등)와 findAll / count / exists(Predicate) : MemberRepositoryImpl의 @Transactional(readOnly = true)
+// - 나머지 QuerydslPredicateExecutor 메서드 : 아래에 재선언해서 읽기 전용 트랜잭션 -> replica 라우팅 대상
+// - save 등 쓰기 메서드 : SimpleJpaRepository의 @Transactional이 우선
+@Transactional(readOnly = true)
 public interface MemberRepository
         extends JpaRepository<Member, Long>,
         MemberRepositoryCustom,
         QuerydslPredicateExecutor<Member> {
     List<Member> findByUsername(String username);
+
+    @Override
+    Optional<Member> findOne(Predicate predicate);
+
+    @Override
+    Iterable<Member> findAll(Predicate predicate, Sort sort);
+
+    @Override
+    Iterable<Member> findAll(Predicate predicate, OrderSpecifier<?>... orders);
+
+    @Override
+    Iterable<Member> findAll(OrderSpecifier<?>... orders);
+
+    @Override
+    Page<Member> findAll(Predicate predicate, Pageable pageable);
+
+    @Override
+    <S extends Member, R> R findBy(Predicate predicate, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction);
 }
@@ -2,13 +2,27 @@ package com.example.querydsl.repository;
 
 import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.querydsl.core.types.Predicate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    // 카운트 없는 Slice - searchPageSimple / searchPageComplex는 카운트 방식만 다르므로 Slice는 하나로 충분
+    // 커서(member_id) 기반, offset 기반 (pageable 정렬 가능 속성: memberId, username, age, teamName)
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Long cursor, int size);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+    long streamSearch(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer);
+
+    // QuerydslPredicateExecutor 재정의 (메모리 계층 우선)
+    Iterable<Member> findAll(Predicate predicate);
+    long count(Predicate predicate);
+    boolean exists(Predicate predicate);
 }
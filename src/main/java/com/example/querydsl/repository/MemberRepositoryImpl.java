@@ -4,36 +4,108 @@ import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
 import com.example.querydsl.dto.QMemberTeamDto;
 import com.example.querydsl.entity.Member;
-import com.querydsl.core.QueryResults;
+import com.example.querydsl.memory.InMemoryMemberStore;
+import com.example.querydsl.repository.support.CountCache;
+import com.example.querydsl.repository.support.ConcurrentCountExecutor;
+import com.example.querydsl.repository.support.CountQuery;
+import com.example.querydsl.repository.support.QueryTemplate;
+import com.example.querydsl.repository.support.QueryTemplateCache;
+import com.example.querydsl.repository.support.SliceQuery;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.JPQLQuery;
-import com.querydsl.jpa.JPQLQueryFactory;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.example.querydsl.entity.QMember.member;
 import static com.example.querydsl.entity.QTeam.team;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 import static org.springframework.util.StringUtils.isEmpty;
 
 // 커스텀 구현체의 이름 규약 : JPA repository 이름 + Impl
+// 커스텀 메서드는 MemberRepository의 @Transactional이 적용되지 않으므로 여기서 읽기 전용 트랜잭션 -> replica 라우팅 대상
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
-    private final JPQLQueryFactory queryFactory;
+    private static final int STREAM_FETCH_SIZE = 500; // JDBC 드라이버가 한번에 가져오는 로우 수
+    private static final int MAX_SLICE_SIZE = 100; // 커서 기반 페이지 최대 크기 (더 크게 요청하면 줄인다)
 
-    public MemberRepositoryImpl(EntityManager em) {
+    // 검색 조건 템플릿 파라미터
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    // 카운트 없는 페이징에서 정렬할 수 있는 속성 (MemberTeamDto 필드 이름)
+    private static final Map<String, ComparableExpressionBase<?>> SLICE_SORT_PROPERTIES = Map.of(
+            "memberId", member.id,
+            "username", member.username,
+            "age", member.age,
+            "teamName", team.name);
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final CountCache countCache;
+    private final ConcurrentCountExecutor countExecutor;
+    private final QueryTemplateCache queryTemplates = new QueryTemplateCache();
+    private final ObjectProvider<InMemoryMemberStore> memoryStore; // querydsl.memory-tier.enabled=true일 때만
+
+    public MemberRepositoryImpl(EntityManager em, CountCache countCache, ConcurrentCountExecutor countExecutor,
+                                ObjectProvider<InMemoryMemberStore> memoryStore) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.countExecutor = countExecutor;
+        this.memoryStore = memoryStore;
     }
 
+    // 메모리 계층이 있으면 먼저, 아니면 조건 조합(최대 16가지)별로 미리 만든 JPQL에 값만 바인딩
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        InMemoryMemberStore store = memoryStore.getIfAvailable();
+        if (store != null) {
+            Optional<List<MemberTeamDto>> result = store.find(ExpressionUtils.allOf(
+                    usernameEq(normalized.getUserName()),
+                    teamNameEq(normalized.getTeamName()),
+                    ageGoe(normalized.getAgeGoe()),
+                    ageLoe(normalized.getAgeLoe())), List.of(), -1, -1);
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+        QueryTemplate<MemberTeamDto> template =
+                queryTemplates.get(shapeOf(normalized), () -> searchTemplate(normalized));
+        return template.fetch(em, bindings(normalized));
+    }
 
+    private JPAQuery<MemberTeamDto> searchTemplate(MemberSearchCondition shape) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memeberId"),
@@ -44,18 +116,33 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+                        shape.getUserName() == null ? null : member.username.eq(USERNAME),
+                        shape.getTeamName() == null ? null : team.name.eq(TEAM_NAME),
+                        shape.getAgeGoe() == null ? null : member.age.goe(AGE_GOE),
+                        shape.getAgeLoe() == null ? null : member.age.loe(AGE_LOE));
+    }
+
+    private static int shapeOf(MemberSearchCondition condition) {
+        return (condition.getUserName() == null ? 0 : 1)
+                | (condition.getTeamName() == null ? 0 : 2)
+                | (condition.getAgeGoe() == null ? 0 : 4)
+                | (condition.getAgeLoe() == null ? 0 : 8);
+    }
+
+    private static Map<ParamExpression<?>, Object> bindings(MemberSearchCondition condition) {
+        Map<ParamExpression<?>, Object> values = new HashMap<>();
+        values.put(USERNAME, condition.getUserName());
+        values.put(TEAM_NAME, condition.getTeamName());
+        values.put(AGE_GOE, condition.getAgeGoe());
+        values.put(AGE_LOE, condition.getAgeLoe());
+        return values;
     }
 
     // 간단한 페이징 쿼리
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
 
-        QueryResults<MemberTeamDto> result = queryFactory
+        List<MemberTeamDto> content = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memeberId"),
                         member.username,
@@ -71,16 +158,44 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageLoe(condition.getAgeLoe()))
                 .offset(pageable.getOffset()) // 몇번째 페이지?
                 .limit(pageable.getPageSize()) // 페이지 하나에 로우 몇개?
-                .fetchResults(); // 컨텐츠 조회, 페이지 조회 별도의 쿼리
-
-        List<MemberTeamDto> content = result.getResults();
-        long total = result.getTotal();
+                .fetch();
 
-        return new PageImpl<>(content, pageable, total);
+        // fetchResults()는 deprecated, 카운트 쿼리는 count(member.id)로 별도 실행
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(condition));
     }
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        // 컨텐츠와 카운트를 동시에 (querydsl.concurrent-count.enabled), 아니면 순차 실행
+        // 첫 페이지 컨텐츠가 페이지 사이즈보다 작거나 마지막 페이지면 카운트 쿼리 생략(실행 중이면 취소)
+        return countExecutor.getPage(pageable,
+                () -> queryFactory
+                        .select(new QMemberTeamDto(
+                                member.id.as("memeberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUserName()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe()))
+                        .offset(pageable.getOffset()) // 몇번째 페이지?
+                        .limit(pageable.getPageSize()) // 페이지 하나에 로우 몇개?
+                        .fetch(),
+                CountCache.key("MemberRepository.search", condition.normalize()),
+                countQuery(condition),
+                queryFactory);
+    }
+
+    // 커서 기반 페이징 - offset 없이 마지막으로 조회한 member_id 다음부터 조회 (몇번째 페이지든 비용이 같다)
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Long cursor, int size) {
+        Assert.isTrue(size > 0, "Size must be greater than zero!");
+        size = Math.min(size, MAX_SLICE_SIZE);
         List<MemberTeamDto> content = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memeberId"),
@@ -91,26 +206,169 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
+                        memberIdGt(cursor),
                         usernameEq(condition.getUserName()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
-                .offset(pageable.getOffset()) // 몇번째 페이지?
-                .limit(pageable.getPageSize()) // 페이지 하나에 로우 몇개?
-                .fetch(); // 컨텐츠 조회, 페이지 조회 별도의 쿼리
+                .orderBy(member.id.asc())
+                .limit(size + 1L) // 다음 페이지 존재 여부 확인용으로 하나 더
+                .fetch();
 
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
 
-        JPQLQuery<Member> countQuery = queryFactory
+    // 카운트 없는 페이징 (무한 스크롤) - 페이지 사이즈 + 1개를 조회해 다음 페이지 여부만 판단
+    // offset 페이징이므로 페이지가 바뀌어도 순서가 같도록 pageable 정렬 뒤에 member_id로 정렬
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memeberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUserName()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(sliceOrders(pageable.getSort()));
+        return SliceQuery.fetch(query, pageable);
+    }
+
+    private static OrderSpecifier<?>[] sliceOrders(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> property = SLICE_SORT_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            OrderSpecifier<?> orderSpecifier = order.isAscending() ? property.asc() : property.desc();
+            if (order.getNullHandling() == Sort.NullHandling.NULLS_FIRST) {
+                orderSpecifier = orderSpecifier.nullsFirst();
+            } else if (order.getNullHandling() == Sort.NullHandling.NULLS_LAST) {
+                orderSpecifier = orderSpecifier.nullsLast();
+            }
+            orders.add(orderSpecifier);
+        }
+        if (sort.getOrderFor("memberId") == null) {
+            orders.add(member.id.asc()); // 정렬 값이 같은 로우의 순서 고정
+        }
+        return orders.toArray(OrderSpecifier[]::new);
+    }
+
+    // QuerydslPredicateExecutor 메서드 재정의 - 메모리 계층에서 답할 수 있으면 DB 조건 조회 생략
+    // 엔티티 조회는 메모리에서 찾은 id로 PK 조회 (ENTITY_LOOKUP_LIMIT 초과면 원래 조건으로 조회)
+    @Override
+    public Iterable<Member> findAll(Predicate predicate) {
+        InMemoryMemberStore store = memoryStore.getIfAvailable();
+        Optional<List<Long>> ids = store == null ? Optional.empty()
+                : store.findIds(predicate, InMemoryMemberStore.ENTITY_LOOKUP_LIMIT + 1);
+        if (ids.isPresent() && ids.get().size() <= InMemoryMemberStore.ENTITY_LOOKUP_LIMIT) {
+            if (ids.get().isEmpty()) {
+                return List.of();
+            }
+            return queryFactory
+                    .selectFrom(member)
+                    .where(member.id.in(ids.get()))
+                    .orderBy(member.id.asc())
+                    .fetch();
+        }
+        return queryFactory
                 .selectFrom(member)
+                .where(predicate)
+                .fetch();
+    }
+
+    @Override
+    public long count(Predicate predicate) {
+        InMemoryMemberStore store = memoryStore.getIfAvailable();
+        OptionalLong count = store == null ? OptionalLong.empty() : store.count(predicate, true);
+        if (count.isPresent()) {
+            return count.getAsLong();
+        }
+        Long result = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(predicate)
+                .fetchOne();
+        return result == null ? 0 : result;
+    }
+
+    @Override
+    public boolean exists(Predicate predicate) {
+        InMemoryMemberStore store = memoryStore.getIfAvailable();
+        OptionalLong count = store == null ? OptionalLong.empty() : store.count(predicate, true);
+        if (count.isPresent()) {
+            return count.getAsLong() > 0;
+        }
+        return queryFactory
+                .selectOne()
+                .from(member)
+                .where(predicate)
+                .fetchFirst() != null;
+    }
+
+    // 대용량 조회 - 결과를 List로 모으지 않고 커서로 한 로우씩 consumer에 넘긴다
+    // DTO 프로젝션이라 영속성 컨텍스트에 쌓이는 엔티티가 없으므로 중간에 clear하지 않는다 (바깥 트랜잭션의 변경을 지우지 않도록)
+    @Override
+    public long streamSearch(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+        long count = 0;
+        try (Stream<MemberTeamDto> stream = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memeberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUserName()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .setHint(HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HINT_READONLY, true)
+                .stream()) {
+
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 같은 조건의 카운트는 캐시 (페이지만 바뀌는 요청)
+    private long fetchCount(MemberSearchCondition condition) {
+        CountQuery countQuery = countQuery(condition);
+        return countCache.get(CountCache.key("MemberRepository.search", condition.normalize()),
+                () -> countQuery.fetchCount(queryFactory));
+    }
+
+    // team 조건이 없으면 left join 없이 count(member.id)만 실행
+    private CountQuery countQuery(MemberSearchCondition condition) {
+        return CountQuery.countOf(member, member.id)
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUserName()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()));
+    }
 
-        // return new PageImpl<>(content, pageable, total);
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+    private BooleanExpression memberIdGt(Long cursor) {
+        return cursor == null ? null : member.id.gt(cursor);
     }
 
     private BooleanExpression usernameEq(String username) {
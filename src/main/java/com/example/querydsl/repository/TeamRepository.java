@@ -0,0 +1,25 @@
+package com.example.querydsl.repository;
+
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.support.Querydsl4RepositorySupport;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+import static com.example.querydsl.entity.QTeam.team;
+
+@Repository
+public class TeamRepository extends Querydsl4RepositorySupport {
+
+    public TeamRepository() {
+        super(Team.class);
+    }
+
+    // 팀 이름 조회 - 쿼리 캐시(team-by-name) + 팀 2차 캐시, 팀 변경 시 자동 무효화
+    public Optional<Team> findByName(String name) {
+        return Optional.ofNullable(cacheable(selectFrom(team)
+                .where(team.name.eq(name)), "team-by-name")
+                .fetchFirst());
+    }
+
+}
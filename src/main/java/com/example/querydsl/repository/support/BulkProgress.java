@@ -0,0 +1,33 @@
+package com.example.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 커밋된 청크 정보 - id 범위는 (fromId, toId]
+ */
+@Getter
+@ToString
+public class BulkProgress {
+
+    private final int chunk;
+    private final long fromId;
+    private final long toId;
+    private final long maxId;
+    private final long affected;
+    private final long totalAffected;
+
+    public BulkProgress(int chunk, long fromId, long toId, long maxId, long affected, long totalAffected) {
+        this.chunk = chunk;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.maxId = maxId;
+        this.affected = affected;
+        this.totalAffected = totalAffected;
+    }
+
+    public boolean isLast() {
+        return toId >= maxId;
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * 청크 단위 벌크 연산 옵션
+ *
+ * ex) ChunkOptions.of(1000).pause(Duration.ofMillis(100)).onProgress(p -> log.info("{}", p))
+ *     실패 후 재시작 : options.resumeAfter(e.getLastCommittedId())
+ */
+public class ChunkOptions {
+
+    private final int chunkSize;
+    private Duration pause = Duration.ZERO;
+    private Long resumeAfter;
+    private Consumer<BulkProgress> progressListener = progress -> {
+    };
+
+    private ChunkOptions(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    // 청크 하나가 다루는 id 범위의 크기 (id가 촘촘하면 로우 수와 거의 같다)
+    public static ChunkOptions of(int chunkSize) {
+        return new ChunkOptions(chunkSize);
+    }
+
+    // 청크 사이 대기 - 다른 트랜잭션이 락을 얻고 복제가 따라올 시간
+    public ChunkOptions pause(Duration pause) {
+        this.pause = pause;
+        return this;
+    }
+
+    // 이 id까지는 이미 커밋됨 (ChunkedBulkException.getLastCommittedId())
+    public ChunkOptions resumeAfter(Long lastCommittedId) {
+        this.resumeAfter = lastCommittedId;
+        return this;
+    }
+
+    // 청크가 커밋될 때마다 호출
+    public ChunkOptions onProgress(Consumer<BulkProgress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    Duration getPause() {
+        return pause;
+    }
+
+    Long getResumeAfter() {
+        return resumeAfter;
+    }
+
+    Consumer<BulkProgress> getProgressListener() {
+        return progressListener;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.example.querydsl.repository.support;
+
+/**
+ * 청크 단위 벌크 연산 중단 - lastCommittedId까지는 커밋되어 있으므로 그 다음부터 재시작할 수 있다
+ */
+public class ChunkedBulkException extends RuntimeException {
+
+    private final Long lastCommittedId;
+    private final long totalAffected;
+
+    public ChunkedBulkException(String message, Long lastCommittedId, long totalAffected, Throwable cause) {
+        super(message, cause);
+        this.lastCommittedId = lastCommittedId;
+        this.totalAffected = totalAffected;
+    }
+
+    public Long getLastCommittedId() {
+        return lastCommittedId;
+    }
+
+    public long getTotalAffected() {
+        return totalAffected;
+    }
+
+}
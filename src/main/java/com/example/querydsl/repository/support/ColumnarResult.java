@@ -0,0 +1,306 @@
+package com.example.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.IntSummaryStatistics;
+
+/**
+ * 컬럼 단위 조회 결과 - 로우 객체(Tuple, DTO) 대신 컬럼별 기본형 배열에 담는다
+ * - Long -> long[], Integer/Short/Byte -> int[], Double/Float -> double[] (null은 BitSet으로)
+ * - String -> 사전 인코딩 (int[] 코드 + 서로 다른 값 목록) - 팀 이름처럼 값 종류가 적은 컬럼
+ *
+ * 로우 하나에 박싱 객체 여러 개(수십 바이트) 대신 컬럼당 4~8바이트만 남는다.
+ * 읽기는 forEach(Row)로 순회하거나 컬럼을 직접 꺼내 집계한다.
+ * 로우가 많은 루프에서는 컬럼을 한번 꺼내 두고 인덱스로 읽는 편이 빠르다.
+ *
+ * IntColumn ages = result.ints(member.age);
+ * for (int i = 0; i < result.size(); i++) { if (!ages.isNull(i)) sum += ages.get(i); }
+ */
+public class ColumnarResult {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Column[] columns;
+    private final Map<Expression<?>, Column> columnsByExpression = new HashMap<>();
+    private int size;
+
+    public ColumnarResult(List<Expression<?>> expressions) {
+        this.columns = new Column[expressions.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = newColumn(expressions.get(i));
+            columnsByExpression.putIfAbsent(expressions.get(i), columns[i]);
+        }
+    }
+
+    public void add(Object[] row) {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(size, row[i]);
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LongColumn longs(Expression<?> expr) {
+        return column(expr, LongColumn.class);
+    }
+
+    public IntColumn ints(Expression<?> expr) {
+        return column(expr, IntColumn.class);
+    }
+
+    public DoubleColumn doubles(Expression<?> expr) {
+        return column(expr, DoubleColumn.class);
+    }
+
+    public DictionaryColumn strings(Expression<?> expr) {
+        return column(expr, DictionaryColumn.class);
+    }
+
+    // 로우 순회 - Row는 재사용되므로 밖으로 꺼내지 말 것 (Row가 찾은 컬럼을 기억하므로 컬럼 조회는 처음 한번)
+    public void forEach(RowConsumer consumer) {
+        Row row = new Row();
+        for (int i = 0; i < size; i++) {
+            row.index = i;
+            consumer.accept(row);
+        }
+    }
+
+    // 사전 인코딩 컬럼으로 묶어 int 컬럼 통계 (groupBy(team.name) + count/sum/avg/min/max)
+    public Map<String, IntSummaryStatistics> summarizeBy(Expression<String> key, Expression<? extends Number> value) {
+        DictionaryColumn keys = strings(key);
+        IntColumn values = ints(value);
+        IntSummaryStatistics[] stats = new IntSummaryStatistics[keys.dictionary.size()];
+        IntSummaryStatistics nullKey = null;
+        for (int i = 0; i < size; i++) {
+            if (values.isNull(i)) {
+                continue;
+            }
+            int code = keys.codes[i];
+            if (code < 0) {
+                nullKey = nullKey == null ? new IntSummaryStatistics() : nullKey;
+                nullKey.accept(values.values[i]);
+                continue;
+            }
+            if (stats[code] == null) {
+                stats[code] = new IntSummaryStatistics();
+            }
+            stats[code].accept(values.values[i]);
+        }
+        Map<String, IntSummaryStatistics> result = new LinkedHashMap<>();
+        for (int code = 0; code < stats.length; code++) {
+            if (stats[code] != null) {
+                result.put(keys.dictionary.get(code), stats[code]);
+            }
+        }
+        if (nullKey != null) {
+            result.put(null, nullKey);
+        }
+        return result;
+    }
+
+    private <C extends Column> C column(Expression<?> expr, Class<C> type) {
+        Column column = columnsByExpression.get(expr);
+        if (column == null) {
+            throw new IllegalArgumentException("Not a column of this result: " + expr);
+        }
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException(expr + " is stored as " + column.getClass().getSimpleName());
+        }
+        return type.cast(column);
+    }
+
+    private static Column newColumn(Expression<?> expr) {
+        Class<?> type = expr.getType();
+        if (type == Long.class) {
+            return new LongColumn();
+        }
+        if (type == Integer.class || type == Short.class || type == Byte.class) {
+            return new IntColumn();
+        }
+        if (type == Double.class || type == Float.class) {
+            return new DoubleColumn();
+        }
+        if (type == String.class) {
+            return new DictionaryColumn();
+        }
+        throw new IllegalArgumentException("Unsupported column type " + type.getName() + " of " + expr);
+    }
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(Row row);
+    }
+
+    /**
+     * 현재 로우 커서
+     */
+    public class Row {
+
+        private int index;
+        // 표현식 -> 타입 확인을 마친 컬럼 (루프에서는 같은 표현식 인스턴스를 반복해서 쓰므로 동일성으로 찾는다)
+        private final Map<Expression<?>, Column> resolved = new IdentityHashMap<>();
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean isNull(Expression<?> expr) {
+            return resolve(expr, Column.class).isNull(index);
+        }
+
+        public long getLong(Expression<?> expr) {
+            return resolve(expr, LongColumn.class).get(index);
+        }
+
+        public int getInt(Expression<?> expr) {
+            return resolve(expr, IntColumn.class).get(index);
+        }
+
+        public double getDouble(Expression<?> expr) {
+            return resolve(expr, DoubleColumn.class).get(index);
+        }
+
+        public String getString(Expression<?> expr) {
+            return resolve(expr, DictionaryColumn.class).get(index);
+        }
+
+        // 처음 보는 표현식이거나 다른 타입으로 읽을 때만 검증
+        private <C extends Column> C resolve(Expression<?> expr, Class<C> type) {
+            Column column = resolved.get(expr);
+            if (column == null || (type != Column.class && column.getClass() != type)) {
+                column = column(expr, type);
+                resolved.put(expr, column);
+            }
+            @SuppressWarnings("unchecked")
+            C typed = (C) column;
+            return typed;
+        }
+    }
+
+    public abstract static class Column {
+
+        protected final BitSet nulls = new BitSet();
+
+        abstract void add(int index, Object value);
+
+        public boolean isNull(int index) {
+            return nulls.get(index);
+        }
+    }
+
+    public static class LongColumn extends Column {
+
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        @Override
+        void add(int index, Object value) {
+            if (index == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            if (value == null) {
+                nulls.set(index);
+            } else {
+                values[index] = ((Number) value).longValue();
+            }
+        }
+
+        public long get(int index) {
+            return values[index];
+        }
+    }
+
+    public static class IntColumn extends Column {
+
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        @Override
+        void add(int index, Object value) {
+            if (index == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            if (value == null) {
+                nulls.set(index);
+            } else {
+                values[index] = ((Number) value).intValue();
+            }
+        }
+
+        public int get(int index) {
+            return values[index];
+        }
+    }
+
+    public static class DoubleColumn extends Column {
+
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        @Override
+        void add(int index, Object value) {
+            if (index == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            if (value == null) {
+                nulls.set(index);
+            } else {
+                values[index] = ((Number) value).doubleValue();
+            }
+        }
+
+        public double get(int index) {
+            return values[index];
+        }
+    }
+
+    public static class DictionaryColumn extends Column {
+
+        private int[] codes = new int[INITIAL_CAPACITY];
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> encoding = new HashMap<>();
+
+        @Override
+        void add(int index, Object value) {
+            if (index == codes.length) {
+                codes = Arrays.copyOf(codes, codes.length * 2);
+            }
+            if (value == null) {
+                nulls.set(index);
+                codes[index] = -1;
+                return;
+            }
+            String text = (String) value;
+            Integer code = encoding.get(text);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(text);
+                encoding.put(text, code);
+            }
+            codes[index] = code;
+        }
+
+        public String get(int index) {
+            int code = codes[index];
+            return code < 0 ? null : dictionary.get(code);
+        }
+
+        public int code(int index) {
+            return codes[index];
+        }
+
+        // 서로 다른 값 목록 (코드 순)
+        public List<String> dictionary() {
+            return List.copyOf(dictionary);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.example.querydsl.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 동시 카운트 쿼리용 실행기 (querydsl.concurrent-count.enabled=true)
+ *
+ * JDK 21 이상이면 작업마다 가상 스레드, 아니면 큐 없는 pool-size개 스레드 풀.
+ * 어느 쪽이든 동시 실행 수는 ConcurrentCountExecutor가 max-concurrency로 제한하고, 넘으면 순차 실행으로 돌린다.
+ * 다른 구현을 쓰려면 countQueryExecutor 이름의 Executor 빈을 등록할 것
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "querydsl.concurrent-count.enabled", havingValue = "true")
+public class ConcurrentCountConfig {
+
+    private static final String THREAD_NAME_PREFIX = "count-query-";
+
+    @Bean
+    @ConditionalOnMissingBean(name = "countQueryExecutor")
+    public Executor countQueryExecutor(
+            @Value("${querydsl.concurrent-count.pool-size:${querydsl.concurrent-count.max-concurrency:8}}") int poolSize) {
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        if (virtualThreads != null) {
+            return virtualThreads;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setDaemon(true);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // Executor 빈이 있으면 스프링 부트 기본 applicationTaskExecutor(MVC 비동기, 스트리밍 응답)가 등록되지 않으므로 직접 등록
+    @Lazy
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnMissingBean(name = "applicationTaskExecutor")
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // JDK 21+ Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(..).factory()) - 컴파일 타겟이 17이므로 리플렉션
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not available, using a thread pool for count queries");
+            return null;
+        }
+    }
+
+}
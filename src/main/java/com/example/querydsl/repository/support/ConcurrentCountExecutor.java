@@ -0,0 +1,260 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.datasource.PrimaryRoute;
+import com.example.querydsl.metrics.StatementScope;
+import com.querydsl.jpa.JPQLQueryFactory;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 페이징 컨텐츠 쿼리와 카운트 쿼리 동시 실행
+ *
+ * 카운트는 countQueryExecutor(가상 스레드 또는 스레드 풀, ConcurrentCountConfig) 스레드에서 읽기 전용 트랜잭션으로 실행하고
+ * (별도 커넥션, replica 라우팅 대상) 현재 스레드는 컨텐츠를 조회한다.
+ * 카운트 SQL도 호출한 스레드의 StatementScope(요청, 리포지토리 메트릭)에 기록된다.
+ * 다음 경우에는 기존처럼 순차 실행한다.
+ * - querydsl.concurrent-count.enabled=false (기본값)
+ * - 쓰기 트랜잭션 안 (별도 커넥션에서는 커밋 전 변경이 보이지 않음)
+ * - 카운트가 이미 캐시되어 있음
+ * - 동시 실행 수(max-concurrency)를 넘음 - 커넥션 풀 크기보다 작게 둘 것
+ *
+ * 카운트가 필요 없어지거나(첫 페이지가 페이지 사이즈보다 작음) 컨텐츠 조회가 실패하면 카운트 쿼리를 취소한다.
+ * 취소는 Session.cancelQuery(JDBC Statement.cancel)에 맡기므로 드라이버에 따라 늦거나 안 될 수 있다.
+ * 취소해도 카운트가 실제로 끝날 때(커넥션 반환)까지 동시 실행 수에 포함한다.
+ */
+@Slf4j
+@Component
+public class ConcurrentCountExecutor implements MeterBinder {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CountCache countCache;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final Semaphore permits;
+    private final Executor executor;
+
+    private Counter concurrent;
+    private Counter sequential;
+    private Counter saturated;
+
+    public ConcurrentCountExecutor(EntityManager em,
+                                   PlatformTransactionManager transactionManager,
+                                   CountCache countCache,
+                                   @Qualifier("countQueryExecutor") ObjectProvider<Executor> executor,
+                                   @Value("${querydsl.concurrent-count.enabled:false}") boolean enabled,
+                                   @Value("${querydsl.concurrent-count.max-concurrency:8}") int maxConcurrency,
+                                   @Value("${querydsl.concurrent-count.timeout:10s}") Duration timeout) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.countCache = countCache;
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = enabled ? executor.getObject() : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param content       현재 EntityManager로 컨텐츠 조회
+     * @param countCacheKey 카운트 캐시 키 (null이면 캐시하지 않음)
+     * @param queryFactory  순차 실행 시 카운트에 쓸 현재 쿼리 팩토리
+     */
+    public <T> Page<T> getPage(Pageable pageable,
+                               Supplier<List<T>> content,
+                               Object countCacheKey,
+                               CountQuery countQuery,
+                               JPQLQueryFactory queryFactory) {
+        if (!canRunConcurrently(countCacheKey)) {
+            increment(sequential);
+            return PageableExecutionUtils.getPage(content.get(), pageable,
+                    () -> count(countCacheKey, () -> countQuery.fetchCount(queryFactory)));
+        }
+        if (!permits.tryAcquire()) {
+            increment(saturated);
+            return PageableExecutionUtils.getPage(content.get(), pageable,
+                    () -> count(countCacheKey, () -> countQuery.fetchCount(queryFactory)));
+        }
+
+        CountTask task = new CountTask(countCacheKey, countQuery);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            increment(saturated);
+            return PageableExecutionUtils.getPage(content.get(), pageable,
+                    () -> count(countCacheKey, () -> countQuery.fetchCount(queryFactory)));
+        }
+
+        increment(concurrent);
+        try {
+            return PageableExecutionUtils.getPage(content.get(), pageable, () -> await(task));
+        } finally {
+            task.cancel(true); // 카운트를 쓰지 않았거나 컨텐츠 조회가 실패한 경우
+        }
+    }
+
+    private boolean canRunConcurrently(Object countCacheKey) {
+        if (!enabled) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        return countCacheKey == null || !countCache.contains(countCacheKey);
+    }
+
+    private long count(Object countCacheKey, Supplier<Long> countQuery) {
+        return countCacheKey == null
+                ? countQuery.get()
+                : countCache.get(countCacheKey, countQuery::get);
+    }
+
+    private long await(CountTask task) {
+        try {
+            return task.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Count query did not finish within " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for count query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Count query failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        concurrent = countCounter(registry, "concurrent");
+        sequential = countCounter(registry, "sequential");
+        saturated = countCounter(registry, "saturated");
+    }
+
+    private static Counter countCounter(MeterRegistry registry, String mode) {
+        return Counter.builder("querydsl.count.executions")
+                .tag("mode", mode)
+                .description("Paged search count queries by execution mode")
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * 별도 스레드의 읽기 전용 트랜잭션에서 실행하는 카운트 쿼리 - 취소 시 실행 중인 JDBC 문장도 취소
+     */
+    private class CountTask extends FutureTask<Long> {
+
+        private final Object countCacheKey;
+        private final CountQuery countQuery;
+        private final List<StatementScope> scopes = StatementScope.current(); // 호출한 스레드의 범위
+        private final boolean primaryRoute = PrimaryRoute.isRequested(); // 호출한 스레드가 primary에서 읽는 중이면 카운트도
+        private volatile Session session;
+        private volatile boolean running;
+        private final AtomicBoolean permitReleased = new AtomicBoolean();
+
+        CountTask(Object countCacheKey, CountQuery countQuery) {
+            super(() -> null); // run()에서 직접 실행
+            this.countCacheKey = countCacheKey;
+            this.countQuery = countQuery;
+        }
+
+        // 취소되어도 permit은 실행이 끝날 때 반환 (취소된 뒤에도 문장이 커넥션을 잡고 있을 수 있다)
+        @Override
+        public void run() {
+            running = true;
+            try {
+                if (!isDone()) {
+                    execute();
+                }
+            } finally {
+                running = false;
+                releasePermit();
+            }
+        }
+
+        private void execute() {
+            try (StatementScope.Attachment attached = StatementScope.attach(scopes)) {
+                Supplier<Long> count = () -> readOnlyTransaction.execute(status -> {
+                    session = em.unwrap(Session.class);
+                    return count(countCacheKey, () -> countQuery.fetchCount(queryFactory));
+                });
+                set(primaryRoute ? PrimaryRoute.call(count) : count.get());
+            } catch (Throwable e) {
+                setException(e);
+            } finally {
+                session = null;
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Session current = session;
+            if (cancelled && current != null) {
+                try {
+                    current.cancelQuery();
+                } catch (RuntimeException e) {
+                    log.debug("Failed to cancel count query", e);
+                }
+            }
+            return cancelled;
+        }
+
+        // 실행 전에 취소된 경우만 여기서 반환 - 실행 중이면 run()이 끝날 때
+        @Override
+        protected void done() {
+            if (!running) {
+                releasePermit();
+            }
+        }
+
+        private void releasePermit() {
+            if (permitReleased.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+}
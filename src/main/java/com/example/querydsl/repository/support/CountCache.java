@@ -0,0 +1,183 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.datasource.PrimaryRoute;
+import com.example.querydsl.datasource.ReplicaLagMonitor;
+import com.example.querydsl.entity.EntityChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 카운트 결과 캐시
+ *
+ * 같은 검색 조건으로 페이지만 넘길 때 매번 count 쿼리를 다시 실행하지 않도록 한다.
+ * TTL이 지나거나 최대 개수를 넘으면(LRU) 제거되고, Member/Team 변경 시 전체 무효화된다.
+ * replica를 쓰면 무효화 후 max-lag 동안은 replica에서 센 카운트를 저장하지 않는다. (변경 전 값으로 TTL 동안 채워지지 않도록)
+ */
+@Component
+public class CountCache implements MeterBinder {
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<Object, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long generation; // 무효화 이전에 읽은 카운트가 다시 저장되지 않도록
+    private long invalidatedAt;
+    private ReplicaLagMonitor replicaLagMonitor; // null이면 replica 없음
+
+    @Autowired
+    public CountCache(@Value("${querydsl.count-cache.ttl:30s}") Duration ttl,
+                      @Value("${querydsl.count-cache.max-size:1000}") int maxSize,
+                      ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        this(ttl, maxSize);
+        this.replicaLagMonitor = replicaLagMonitor.getIfAvailable();
+    }
+
+    public CountCache(Duration ttl, int maxSize) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                boolean evict = size() > CountCache.this.maxSize;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    // ex) CountCache.key("searchPage", condition.normalize())
+    public static Object key(Object... parts) {
+        return List.of(Arrays.stream(parts).map(part -> part == null ? "" : part).toArray());
+    }
+
+    public long get(Object key, LongSupplier loader) {
+        // 쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 섞이므로 캐시를 쓰지 않는다
+        if (inWriteTransaction()) {
+            return loader.getAsLong();
+        }
+
+        long now = System.currentTimeMillis();
+        long loadedGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry.count;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            loadedGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        long count = loader.getAsLong();
+
+        synchronized (this) {
+            if (loadedGeneration == generation && !maybeStale()) {
+                entries.put(key, new Entry(count, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return count;
+    }
+
+    // 만료되지 않은 카운트가 있는지 (통계에 포함하지 않음)
+    public synchronized boolean contains(Object key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.expiresAt > System.currentTimeMillis();
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidatedAt = System.currentTimeMillis();
+        entries.clear();
+    }
+
+    // 무효화 직후 replica에서 센 카운트 - 아직 복제되지 않은 변경이 빠져 있을 수 있다
+    private boolean maybeStale() {
+        return replicaLagMonitor != null
+                && !PrimaryRoute.isRequested()
+                && System.currentTimeMillis() - invalidatedAt < replicaLagMonitor.getMaxLag().toMillis();
+    }
+
+    // 변경 시점에 한번, 트랜잭션 종료 후 한번 더 (커밋 전 다른 요청이 읽은 카운트 제거)
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateAll();
+                }
+            });
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("querydsl.count.cache.requests", hits, AtomicLong::doubleValue)
+                .tag("result", "hit")
+                .description("Paged search count cache lookups")
+                .register(registry);
+        FunctionCounter.builder("querydsl.count.cache.requests", misses, AtomicLong::doubleValue)
+                .tag("result", "miss")
+                .description("Paged search count cache lookups")
+                .register(registry);
+        FunctionCounter.builder("querydsl.count.cache.evictions", evictions, AtomicLong::doubleValue)
+                .register(registry);
+        Gauge.builder("querydsl.count.cache.size", this, CountCache::size)
+                .register(registry);
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        Entry(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.example.querydsl.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLQueryFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 페이징용 카운트 쿼리 빌더
+ *
+ * 엔티티 전체가 아닌 select count(키)만 조회하고,
+ * where 조건에서 참조하지 않는 left join은 카운트 결과에 영향이 없으므로 쿼리에서 제외한다.
+ * (to-one 관계의 left join만 등록할 것. to-many join은 로우 수를 바꾸므로 항상 유지해야 한다)
+ */
+public class CountQuery {
+
+    private final EntityPath<?> from;
+    private final SimpleExpression<?> countKey;
+    private final List<LeftJoin<?>> leftJoins = new ArrayList<>();
+    private final List<Predicate> where = new ArrayList<>();
+
+    private CountQuery(EntityPath<?> from, SimpleExpression<?> countKey) {
+        this.from = from;
+        this.countKey = countKey;
+    }
+
+    // ex) countOf(member, member.id)
+    public static CountQuery countOf(EntityPath<?> from, SimpleExpression<?> countKey) {
+        return new CountQuery(from, countKey);
+    }
+
+    public <P> CountQuery leftJoin(EntityPath<P> target, Path<P> alias) {
+        leftJoins.add(new LeftJoin<>(target, alias));
+        return this;
+    }
+
+    // null 조건은 무시 (where 파라미터 방식과 동일)
+    public CountQuery where(Predicate... predicates) {
+        for (Predicate predicate : predicates) {
+            if (predicate != null) {
+                where.add(predicate);
+            }
+        }
+        return this;
+    }
+
+    public JPQLQuery<Long> toQuery(JPQLQueryFactory queryFactory) {
+        JPQLQuery<Long> query = queryFactory
+                .select(countKey.count())
+                .from(from);
+        for (LeftJoin<?> join : requiredJoins()) {
+            join.applyTo(query);
+        }
+        return query.where(where.toArray(new Predicate[0]));
+    }
+
+    public long fetchCount(JPQLQueryFactory queryFactory) {
+        Long count = toQuery(queryFactory).fetchOne();
+        return count == null ? 0L : count;
+    }
+
+    // 조건에서 참조하는 별칭의 join과, 그 join이 의존하는 앞쪽 join만 남긴다
+    private List<LeftJoin<?>> requiredJoins() {
+        Set<Path<?>> referenced = new HashSet<>();
+        for (Predicate predicate : where) {
+            predicate.accept(RootCollector.INSTANCE, referenced);
+        }
+
+        List<LeftJoin<?>> required = new ArrayList<>();
+        for (int i = leftJoins.size() - 1; i >= 0; i--) {
+            LeftJoin<?> join = leftJoins.get(i);
+            if (referenced.contains(join.alias)) {
+                required.add(0, join);
+                referenced.add(join.target.getRoot());
+            }
+        }
+        return required;
+    }
+
+    private static class LeftJoin<P> {
+        private final EntityPath<P> target;
+        private final Path<P> alias;
+
+        LeftJoin(EntityPath<P> target, Path<P> alias) {
+            this.target = target;
+            this.alias = alias;
+        }
+
+        void applyTo(JPQLQuery<?> query) {
+            query.leftJoin(target, alias);
+        }
+    }
+
+    /**
+     * 표현식 트리를 순회하며 참조하는 경로의 루트(별칭)를 모은다
+     */
+    static class RootCollector implements Visitor<Void, Set<Path<?>>> {
+
+        static final RootCollector INSTANCE = new RootCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Path<?>> roots) {
+            visitAll(expr.getArgs(), roots);
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Path<?>> roots) {
+            visitAll(expr.getArgs(), roots);
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Path<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Path<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            if (metadata.getWhere() != null) {
+                metadata.getWhere().accept(this, roots);
+            }
+            if (metadata.getProjection() != null) {
+                metadata.getProjection().accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Path<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, roots);
+                }
+            }
+            return null;
+        }
+
+        private void visitAll(List<Expression<?>> args, Set<Path<?>> roots) {
+            for (Expression<?> arg : args) {
+                arg.accept(this, roots);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,363 @@
+package com.example.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / fields / constructor 대체 - 로우마다 리플렉션 없이 DTO 생성
+ *
+ * DTO 타입과 프로퍼티(또는 생성자 인자 타입) 조합별로 매퍼를 한번만 만들어 캐시한다.
+ * - bean : 기본 생성자, setter를 LambdaMetafactory로 만든 Supplier / BiConsumer로 호출
+ * - fields : 필드 setter MethodHandle
+ * - constructor : 인자 타입이 맞는 생성자 MethodHandle
+ * - record : 어떤 방식이든 정식(canonical) 생성자로 생성, bean / fields는 컴포넌트 이름으로 매칭
+ * 값이 null이고 대상이 기본형이면 bean / fields는 기본값을 유지하고, 생성자는 기본값을 넘긴다.
+ *
+ * ex) select(FastProjections.bean(MemberDto.class, member.username, member.age))
+ */
+public final class FastProjections {
+
+    private enum Style {BEAN, FIELDS, CONSTRUCTOR}
+
+    private static final Map<MapperKey, RowMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    private FastProjections() {
+    }
+
+    public static <T> FastProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        return create(type, Style.BEAN, exprs);
+    }
+
+    public static <T> FastProjection<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        return create(type, Style.FIELDS, exprs);
+    }
+
+    public static <T> FastProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        return create(type, Style.CONSTRUCTOR, exprs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> FastProjection<T> create(Class<? extends T> type, Style style, Expression<?>... exprs) {
+        List<Object> signature = new ArrayList<>(exprs.length);
+        for (Expression<?> expr : exprs) {
+            signature.add(style == Style.CONSTRUCTOR ? expr.getType() : propertyName(expr));
+        }
+        RowMapper<T> mapper = (RowMapper<T>) MAPPERS.computeIfAbsent(new MapperKey(type, style, signature),
+                key -> newMapper(type, style, exprs));
+        return new FastProjection<>(type, List.of(exprs), mapper);
+    }
+
+    private static RowMapper<?> newMapper(Class<?> type, Style style, Expression<?>[] exprs) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            if (type.isRecord()) {
+                return style == Style.CONSTRUCTOR
+                        ? constructorMapper(lookup, canonicalConstructor(type), identity(exprs.length))
+                        : constructorMapper(lookup, canonicalConstructor(type), recordPositions(type, exprs));
+            }
+            switch (style) {
+                case BEAN:
+                    return beanMapper(lookup, type, exprs, true);
+                case FIELDS:
+                    return beanMapper(lookup, type, exprs, false);
+                default:
+                    return constructorMapper(lookup, findConstructor(type, exprs), identity(exprs.length));
+            }
+        } catch (ExpressionException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExpressionException("Failed to create projection for " + type.getName(), e);
+        }
+    }
+
+    // 생성자 - positions[i] : i번째 생성자 인자가 몇번째 컬럼인지 (-1이면 없음)
+    private static RowMapper<?> constructorMapper(MethodHandles.Lookup lookup, Constructor<?> constructor,
+                                                  int[] positions) throws IllegalAccessException {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] defaults = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            defaults[i] = defaultValue(parameterTypes[i]);
+        }
+        MethodHandle handle = lookup.unreflectConstructor(constructor)
+                .asSpreader(Object[].class, parameterTypes.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        boolean direct = Arrays.equals(positions, identity(parameterTypes.length));
+
+        return row -> {
+            Object[] args = new Object[defaults.length];
+            for (int i = 0; i < args.length; i++) {
+                Object value = direct ? row[i] : positions[i] < 0 ? null : row[positions[i]];
+                args[i] = value == null ? defaults[i] : value;
+            }
+            try {
+                return (Object) handle.invokeExact(args);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        };
+    }
+
+    // 기본 생성자 + setter(bean) 또는 필드(fields)
+    private static RowMapper<?> beanMapper(MethodHandles.Lookup lookup, Class<?> type, Expression<?>[] exprs,
+                                           boolean useSetters) throws Throwable {
+        Supplier<Object> factory = factory(lookup, type);
+        List<BiConsumer<Object, Object>> setters = new ArrayList<>(exprs.length);
+        boolean[] primitive = new boolean[exprs.length];
+        for (int i = 0; i < exprs.length; i++) {
+            String name = propertyName(exprs[i]);
+            if (useSetters) {
+                Method writeMethod = writeMethod(type, name);
+                primitive[i] = writeMethod.getParameterTypes()[0].isPrimitive();
+                setters.add(setter(lookup, type, writeMethod));
+            } else {
+                Field field = field(type, name);
+                primitive[i] = field.getType().isPrimitive();
+                setters.add(fieldSetter(field));
+            }
+        }
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, Object>[] setterArray = setters.toArray(new BiConsumer[0]);
+
+        return row -> {
+            Object bean = factory.get();
+            for (int i = 0; i < setterArray.length; i++) {
+                Object value = row[i];
+                if (value != null || !primitive[i]) {
+                    setterArray[i].accept(bean, value);
+                }
+            }
+            return bean;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> factory(MethodHandles.Lookup lookup, Class<?> type) throws Throwable {
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        return (Supplier<Object>) LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        constructor,
+                        MethodType.methodType(type))
+                .getTarget()
+                .invoke();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> type, Method method)
+            throws Throwable {
+        Class<?> parameterType = ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0]);
+        return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        lookup.unreflect(method),
+                        MethodType.methodType(void.class, type, parameterType))
+                .getTarget()
+                .invoke();
+    }
+
+    private static BiConsumer<Object, Object> fieldSetter(Field field) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflectSetter(field)
+                .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        };
+    }
+
+    private static Method writeMethod(Class<?> type, String name) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, name);
+        if (descriptor == null || descriptor.getWriteMethod() == null) {
+            throw new ExpressionException("No setter for property " + name + " of " + type.getName());
+        }
+        return descriptor.getWriteMethod();
+    }
+
+    private static Field field(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // 상위 클래스에서 찾기
+            }
+        }
+        throw new ExpressionException("No field " + name + " in " + type.getName());
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, Expression<?>[] exprs) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != exprs.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameterTypes.length && matches; i++) {
+                matches = ClassUtils.isAssignable(parameterTypes[i], exprs[i].getType());
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new ExpressionException("No constructor of " + type.getName() + " matches "
+                + Arrays.toString(Arrays.stream(exprs).map(Expression::getType).toArray()));
+    }
+
+    private static Constructor<?> canonicalConstructor(Class<?> type) throws NoSuchMethodException {
+        Class<?>[] componentTypes = Arrays.stream(type.getRecordComponents())
+                .map(RecordComponent::getType)
+                .toArray(Class<?>[]::new);
+        return type.getDeclaredConstructor(componentTypes);
+    }
+
+    private static int[] recordPositions(Class<?> type, Expression<?>[] exprs) {
+        RecordComponent[] components = type.getRecordComponents();
+        int[] positions = new int[components.length];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < exprs.length; i++) {
+            String name = propertyName(exprs[i]);
+            boolean found = false;
+            for (int j = 0; j < components.length; j++) {
+                if (components[j].getName().equals(name)) {
+                    positions[j] = i;
+                    found = true;
+                }
+            }
+            if (!found) {
+                throw new ExpressionException("No component " + name + " in " + type.getName());
+            }
+        }
+        return positions;
+    }
+
+    private static int[] identity(int size) {
+        int[] positions = new int[size];
+        Arrays.setAll(positions, i -> i);
+        return positions;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        try {
+            return MethodHandles.zero(type).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // member.username -> username, team.name.as("teamName") -> teamName
+    private static String propertyName(Expression<?> expr) {
+        if (expr instanceof Path) {
+            return ((Path<?>) expr).getMetadata().getName();
+        }
+        if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+            Expression<?> alias = ((Operation<?>) expr).getArg(1);
+            if (alias instanceof Path) {
+                return ((Path<?>) alias).getMetadata().getName();
+            }
+        }
+        throw new ExpressionException("Unsupported expression " + expr + ", use a path or an alias");
+    }
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(Object[] row);
+    }
+
+    private static final class MapperKey {
+        private final Class<?> type;
+        private final Style style;
+        private final List<Object> signature;
+
+        MapperKey(Class<?> type, Style style, List<Object> signature) {
+            this.type = type;
+            this.style = style;
+            this.signature = signature;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MapperKey)) {
+                return false;
+            }
+            MapperKey other = (MapperKey) o;
+            return type == other.type && style == other.style && signature.equals(other.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, style, signature);
+        }
+    }
+
+    /**
+     * 캐시된 매퍼로 DTO를 만드는 FactoryExpression
+     */
+    public static final class FastProjection<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final RowMapper<T> mapper;
+
+        private FastProjection(Class<? extends T> type, List<Expression<?>> args, RowMapper<T> mapper) {
+            super(type);
+            this.args = args;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        public T newInstance(Object... row) {
+            return mapper.map(row);
+        }
+
+        RowMapper<T> mapper() {
+            return mapper;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+
+}
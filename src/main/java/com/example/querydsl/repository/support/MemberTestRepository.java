@@ -5,9 +5,13 @@ import com.example.querydsl.entity.Member;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 import static com.example.querydsl.entity.QMember.member;
@@ -17,6 +21,8 @@ import static org.springframework.util.StringUtils.isEmpty;
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
+    private static final String COUNT_CACHE_KEY = "MemberTestRepository.search"; // 같은 조건이면 같은 카운트
+
     public MemberTestRepository() {
         super(Member.class);
     }
@@ -32,7 +38,13 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                 .fetch();
     }
 
-    // 조건검색 페이징 파라미터 - Condition, Pageable
+    // 팀까지 한번에 조회 (엔티티 그래프)
+    public List<Member> basicSelectWithTeam() {
+        return selectFrom(member, "Member.team")
+                .fetch();
+    }
+
+    // 조건검색 페이징 파라미터 - Condition, Pageable (같은 조건의 카운트는 캐시)
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition,
                                               Pageable pageable) {
         JPAQuery<Member> query = selectFrom(member)
@@ -43,20 +55,42 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                         ageLoe(condition.getAgeLoe()));
         List<Member> content = getQuerydsl().applyPagination(pageable, query)
                 .fetch();
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+        CountQuery countQuery = countQuery(condition);
+        return PageableExecutionUtils.getPage(content, pageable, () -> getCountCache().get(
+                CountCache.key(COUNT_CACHE_KEY, condition.normalize()),
+                () -> countQuery.fetchCount(getQueryFactory())));
     }
 
-    // 컨텐츠, 카운팅 통합
+    // 페이징 + 팀 함께 조회 (to-one 그래프는 페이징에 영향 없음)
+    public Page<Member> searchPageWithTeam(MemberSearchCondition condition,
+                                           Pageable pageable) {
+        return applyPagination(
+                pageable,
+                CountCache.key(COUNT_CACHE_KEY, condition.normalize()),
+                contentQuery -> applyFetchGraph(contentQuery
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(usernameEq(condition.getUserName()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())), "Member.team"),
+                countQuery(condition)
+        );
+    }
+
+    // 컨텐츠, 카운팅 통합 - 카운트는 같은 조건의 CountQuery (team 조건이 없으면 join 제외, 캐시)
     public Page<Member> applyPagination(MemberSearchCondition condition,
                                         Pageable pageable) {
         return applyPagination(pageable,
+                CountCache.key(COUNT_CACHE_KEY, condition.normalize()),
                 contentQuery -> contentQuery
                 .selectFrom(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUserName()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())));
+                        ageLoe(condition.getAgeLoe())),
+                countQuery(condition));
     }
 
     // 컨텐츠, 카운팅 별도
@@ -64,6 +98,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                                          Pageable pageable) {
         return applyPagination(
                 pageable,
+                CountCache.key(COUNT_CACHE_KEY, condition.normalize()),
                 contentQuery -> contentQuery
                         .selectFrom(member)
                         .leftJoin(member.team, team)
@@ -71,14 +106,111 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                                 teamNameEq(condition.getTeamName()),
                                 ageGoe(condition.getAgeGoe()),
                                 ageLoe(condition.getAgeLoe())),
-                countQuery -> countQuery
+                countQuery(condition)
+        );
+    }
+
+    // 벌크 수정 - 나이 1 증가
+    public long bulkAgePlus(int ageGoe) {
+        return bulkUpdate(member, update -> update
+                .set(member.age, member.age.add(1))
+                .where(member.age.goe(ageGoe)));
+    }
+
+    // 벌크 삭제
+    public long bulkDeleteByAgeGt(int age) {
+        return bulkDelete(member, delete -> delete
+                .where(member.age.gt(age)));
+    }
+
+    // 컬럼 단위 조회 - 회원 id, 나이, 팀 이름 (집계, 내보내기용)
+    @Transactional(readOnly = true)
+    public ColumnarResult searchColumnar(MemberSearchCondition condition) {
+        return fetchColumnar(query -> query
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(usernameEq(condition.getUserName()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())),
+                member.id, member.age, team.name);
+    }
+
+    // 청크 단위 벌크 수정 - 청크마다 커밋
+    public long chunkedAgePlus(int ageGoe, ChunkOptions options) {
+        return chunkedUpdate(member, member.id, update -> update
+                .set(member.age, member.age.add(1))
+                .where(member.age.goe(ageGoe)), options);
+    }
+
+    // 청크 단위 벌크 삭제
+    public long chunkedDeleteByAgeGt(int age, ChunkOptions options) {
+        return chunkedDelete(member, member.id, delete -> delete
+                .where(member.age.gt(age)), options);
+    }
+
+    // 카운트 쿼리 - team 조건이 없으면 left join 제외
+    CountQuery countQuery(MemberSearchCondition condition) {
+        return CountQuery.countOf(member, member.id)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUserName()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+    }
+
+    // 카운트 없는 페이징 - pageable 정렬 + member_id (정렬 값이 같은 로우의 순서 고정)
+    public Slice<Member> searchSliceByPage(MemberSearchCondition condition,
+                                           Pageable pageable) {
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+        return applySlicing(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort),
+                query -> query
                         .selectFrom(member)
                         .leftJoin(member.team, team)
                         .where(usernameEq(condition.getUserName()),
                                 teamNameEq(condition.getTeamName()),
                                 ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe()))
-        );
+                                ageLoe(condition.getAgeLoe())));
+    }
+
+    // 커서 기반 페이징 - member_id 기준
+    public Slice<Member> searchSlice(MemberSearchCondition condition,
+                                     Long lastId, int size) {
+        return applyKeysetPagination(member.id, lastId, size,
+                query -> query
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(usernameEq(condition.getUserName()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())));
+    }
+
+    // 커서 기반 페이징 - (age, member_id) 기준
+    public Slice<Member> searchSliceOrderByAge(MemberSearchCondition condition,
+                                               Integer lastAge, Long lastId, int size) {
+        return applyKeysetPagination(member.age, lastAge, member.id, lastId, size,
+                query -> query
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(usernameEq(condition.getUserName()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())));
+    }
+
+    // 커서 기반 페이징 - (username, member_id) 기준, username이 null인 회원은 마지막
+    public Slice<Member> searchSliceOrderByUsername(MemberSearchCondition condition,
+                                                    String lastUsername, Long lastId, int size) {
+        return applyKeysetPagination(member.username, lastUsername, member.id, lastId, size,
+                query -> query
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())));
     }
 
     private BooleanExpression usernameEq(String username) {
@@ -0,0 +1,182 @@
+package com.example.querydsl.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 미리 직렬화해 둔 JPQL 쿼리
+ *
+ * 조건 모양(어떤 조건이 있는지)이 같으면 JPQL 문자열도 같으므로 한번만 만들어 두고,
+ * 실행할 때는 Param 값만 바인딩한다. (Querydsl 표현식 트리 생성, JPQL 직렬화 생략,
+ * 하이버네이트 쿼리 플랜은 같은 JPQL 문자열로 캐시 히트)
+ *
+ * 제약
+ * - 값은 where 절의 Param으로만 넘긴다. 상수가 섞이면 생성 시 예외
+ * - Param은 where 절에 나타나는 순서대로 ?1, ?2 ... 로 직렬화된다
+ * - 프로젝션은 엔티티, 단일 값 또는 중첩되지 않은 FactoryExpression(@QueryProjection, Projections.*)
+ * - limit, offset은 템플릿에 포함되지 않으므로 fetch 시 넘긴다
+ */
+public class QueryTemplate<T> {
+
+    private static final Pattern LABEL = Pattern.compile("\\?(\\d+)");
+
+    private final String jpql;
+    private final List<ParamExpression<?>> params;
+    private final FactoryExpression<T> factoryExpression;
+
+    @SuppressWarnings("unchecked")
+    public QueryTemplate(JPAQuery<T> query) {
+        QueryMetadata metadata = query.getMetadata();
+        this.jpql = query.toString();
+        this.params = collectParams(metadata.getWhere());
+
+        Set<String> labels = new LinkedHashSet<>();
+        Matcher matcher = LABEL.matcher(jpql);
+        while (matcher.find()) {
+            labels.add(matcher.group(1));
+        }
+        if (labels.size() != params.size()) {
+            throw new IllegalArgumentException("Query template must bind values through Param in the where clause only: " + jpql);
+        }
+
+        Expression<?> projection = metadata.getProjection();
+        if (projection instanceof FactoryExpression) {
+            for (Expression<?> arg : ((FactoryExpression<?>) projection).getArgs()) {
+                if (arg instanceof FactoryExpression) {
+                    throw new IllegalArgumentException("Nested projections are not supported: " + projection);
+                }
+            }
+            this.factoryExpression = (FactoryExpression<T>) projection;
+        } else {
+            this.factoryExpression = null;
+        }
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public List<T> fetch(EntityManager em, Map<? extends ParamExpression<?>, ?> values) {
+        return fetch(em, values, -1, -1);
+    }
+
+    public List<T> fetch(EntityManager em, Map<? extends ParamExpression<?>, ?> values, long offset, int limit) {
+        Query query = em.createQuery(jpql);
+        for (int i = 0; i < params.size(); i++) {
+            ParamExpression<?> param = params.get(i);
+            if (!values.containsKey(param)) {
+                throw new IllegalArgumentException("Value for " + param.getName() + " is not given");
+            }
+            query.setParameter(i + 1, values.get(param));
+        }
+        if (offset > 0) {
+            query.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return toResults(query.getResultList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> toResults(List<?> rows) {
+        if (factoryExpression == null) {
+            return (List<T>) rows;
+        }
+        List<T> results = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] args = row instanceof Object[] ? (Object[]) row : new Object[]{row};
+            results.add(factoryExpression.newInstance(args));
+        }
+        return results;
+    }
+
+    private static List<ParamExpression<?>> collectParams(Predicate where) {
+        Set<ParamExpression<?>> params = new LinkedHashSet<>();
+        if (where != null) {
+            where.accept(ParamCollector.INSTANCE, params);
+        }
+        return new ArrayList<>(params);
+    }
+
+    /**
+     * 직렬화 순서(왼쪽 인자부터)대로 Param을 모은다
+     */
+    static class ParamCollector implements Visitor<Void, Set<ParamExpression<?>>> {
+
+        static final ParamCollector INSTANCE = new ParamCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<ParamExpression<?>> params) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<ParamExpression<?>> params) {
+            visitAll(expr.getArgs(), params);
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<ParamExpression<?>> params) {
+            visitAll(expr.getArgs(), params);
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<ParamExpression<?>> params) {
+            params.add(expr);
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<ParamExpression<?>> params) {
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<ParamExpression<?>> params) {
+            if (expr.getMetadata().getWhere() != null) {
+                expr.getMetadata().getWhere().accept(this, params);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<ParamExpression<?>> params) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, params);
+                }
+            }
+            return null;
+        }
+
+        private void visitAll(List<Expression<?>> args, Set<ParamExpression<?>> params) {
+            for (Expression<?> arg : args) {
+                arg.accept(this, params);
+            }
+        }
+    }
+
+}
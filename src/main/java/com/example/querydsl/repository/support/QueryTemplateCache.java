@@ -0,0 +1,26 @@
+package com.example.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 조건 모양(shape)별 QueryTemplate 저장소
+ * 키는 조건 조합처럼 개수가 정해진 값을 쓸 것 (ex. 검색 조건 4개 -> 최대 16개)
+ */
+public class QueryTemplateCache {
+
+    private final Map<Object, QueryTemplate<?>> templates = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> QueryTemplate<T> get(Object shapeKey, Supplier<JPAQuery<T>> query) {
+        return (QueryTemplate<T>) templates.computeIfAbsent(shapeKey, key -> new QueryTemplate<>(query.get()));
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+}
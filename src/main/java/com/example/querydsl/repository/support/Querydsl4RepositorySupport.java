@@ -1,23 +1,45 @@
 package com.example.querydsl.repository.support;
 
+import com.example.querydsl.entity.EntityChangedEvent;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
@@ -29,10 +51,18 @@ org.springframework.data.jpa.repository.support.QuerydslRepositorySupport
 @Repository
 public abstract class Querydsl4RepositorySupport {
 
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+    private static final int COLUMNAR_FETCH_SIZE = 1000;
+
     private final Class domainClass;
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private CountCache countCache;
+    private ConcurrentCountExecutor countExecutor;
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionTemplate chunkTransaction;
+    private final QueryTemplateCache queryTemplates = new QueryTemplateCache();
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
@@ -52,11 +82,36 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+
+    @Autowired
+    public void setCountExecutor(ConcurrentCountExecutor countExecutor) {
+        this.countExecutor = countExecutor;
+    }
+
+    @Autowired
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(countCache, "CountCache must not be null!");
+        Assert.notNull(countExecutor, "ConcurrentCountExecutor must not be null!");
+        Assert.notNull(eventPublisher, "ApplicationEventPublisher must not be null!");
+        Assert.notNull(chunkTransaction, "PlatformTransactionManager must not be null!");
     }
 
     protected JPAQueryFactory getQueryFactory() {
@@ -71,6 +126,10 @@ public abstract class Querydsl4RepositorySupport {
         return entityManager;
     }
 
+    protected CountCache getCountCache() {
+        return countCache;
+    }
+
     // 위임
     protected <T> JPAQuery<T> select(Expression<T> expr) {
         return getQueryFactory().select(expr);
@@ -80,7 +139,60 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    // 엔티티 그래프(@NamedEntityGraph)에 지정한 연관관계를 함께 조회 ex) selectFrom(member, "Member.team")
+    protected <T> JPAQuery<T> selectFrom(EntityPath<T> from, String entityGraph) {
+        return applyFetchGraph(selectFrom(from), entityGraph);
+    }
+
+    // 호출마다 fetch 계획 선택 - 컬렉션 그래프는 페이징 시 메모리에서 페이징되므로 배치 사이즈에 맡길 것
+    protected <T> JPAQuery<T> applyFetchGraph(JPAQuery<T> query, String entityGraph) {
+        return query.setHint(FETCH_GRAPH, getEntityManager().getEntityGraph(entityGraph));
+    }
+
+    // 쿼리 캐시 사용 (opt-in) - 결과는 id 목록만 캐시되므로 대상 엔티티도 2차 캐시여야 함
+    // 대상 테이블이 변경되면 리전 전체가 무효화되므로 거의 바뀌지 않는 조회에만 쓸 것
+    protected <T> JPAQuery<T> cacheable(JPAQuery<T> query, String region) {
+        return query.setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, region);
+    }
 
+    // 컬럼 단위 조회 - 로우를 하나씩 스크롤하며 기본형 배열에 채운다 (대용량 집계, 내보내기)
+    // ex) fetchColumnar(q -> q.from(member).leftJoin(member.team, team), member.id, member.age, team.name)
+    // 커넥션을 잡고 스크롤하므로 트랜잭션 안에서 호출할 것
+    protected ColumnarResult fetchColumnar(Function<JPAQueryFactory, JPAQuery<?>> from, Expression<?>... columns) {
+        // Tuple(FactoryExpression)로 조회하면 하이버네이트가 로우마다 Tuple을 만들므로 컬럼 목록(Object[])으로 조회
+        JPAQuery<Object[]> query = from.apply(getQueryFactory())
+                .select(ExpressionUtils.list(Object[].class, columns));
+        query.setHint(QueryHints.HINT_FETCH_SIZE, COLUMNAR_FETCH_SIZE);
+        query.setHint(QueryHints.HINT_READONLY, true);
+
+        ColumnarResult result = new ColumnarResult(Arrays.asList(columns));
+        try (ScrollableResults rows = query.createQuery()
+                .unwrap(org.hibernate.query.Query.class)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                result.add(rows.get());
+            }
+        }
+        return result;
+    }
+
+    // 조건 모양(shapeKey)별로 JPQL을 한번만 만들어 두고, 실행 시에는 Param 값만 바인딩
+    protected <T> QueryTemplate<T> template(Object shapeKey,
+                                            Function<JPAQueryFactory, JPAQuery<T>> query) {
+        return queryTemplates.get(shapeKey, () -> query.apply(getQueryFactory()));
+    }
+
+    protected <T> List<T> fetch(QueryTemplate<T> template,
+                                Map<? extends ParamExpression<?>, ?> values) {
+        return template.fetch(getEntityManager(), values);
+    }
+
+    /**
+     * @deprecated 카운트를 컨텐츠 쿼리의 fetchCount(deprecated)로 센다 - join, 컬럼을 줄인
+     * {@link #applyPagination(Pageable, Function, CountQuery)}를 쓸 것
+     */
+    @Deprecated
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
@@ -89,6 +201,10 @@ public abstract class Querydsl4RepositorySupport {
         return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
     }
 
+    /**
+     * @deprecated 카운트를 fetchCount(deprecated)로 센다 - {@link #applyPagination(Pageable, Function, CountQuery)}를 쓸 것
+     */
+    @Deprecated
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery,
                                           Function<JPAQueryFactory, JPAQuery> countQuery) {
@@ -99,4 +215,178 @@ public abstract class Querydsl4RepositorySupport {
         return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
     }
 
+    // 카운트는 count(키)만 조회, 조건에 쓰이지 않는 left join은 제외
+    // querydsl.concurrent-count.enabled=true면 카운트를 별도 커넥션에서 동시에 실행
+    protected <T> Page<T> applyPagination(Pageable pageable,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                          CountQuery countQuery) {
+        return applyPagination(pageable, null, contentQuery, countQuery);
+    }
+
+    // 카운트 결과를 countCacheKey로 캐시 (같은 조건으로 페이지만 바뀌는 경우)
+    protected <T> Page<T> applyPagination(Pageable pageable,
+                                          Object countCacheKey,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                          CountQuery countQuery) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        return countExecutor.getPage(pageable,
+                () -> getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch(),
+                countCacheKey, countQuery, getQueryFactory());
+    }
+
+    // 카운트 없는 페이징 (무한 스크롤) - 페이지 사이즈 + 1개를 조회해 다음 페이지 여부만 판단
+    // 정렬은 pageable의 sort, 페이지 사이 순서를 고정하려면 유일 키 정렬을 포함할 것
+    protected <T> Slice<T> applySlicing(Pageable pageable,
+                                        Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        getQuerydsl().applySorting(pageable.getSort(), jpaQuery);
+        return SliceQuery.fetch(jpaQuery, pageable);
+    }
+
+    // 벌크 연산 - 영속성 컨텍스트를 거치지 않으므로 실행 후 영속성 컨텍스트 초기화, 변경 알림
+    protected long bulkUpdate(EntityPath<?> target,
+                              Function<JPAUpdateClause, JPAUpdateClause> update) {
+        long count = update.apply(getQueryFactory().update(target)).execute();
+        afterBulk(target);
+        return count;
+    }
+
+    protected long bulkDelete(EntityPath<?> target,
+                              Function<JPADeleteClause, JPADeleteClause> delete) {
+        long count = delete.apply(getQueryFactory().delete(target)).execute();
+        afterBulk(target);
+        return count;
+    }
+
+    // 청크 단위 벌크 수정 - id 범위로 나눠 청크마다 커밋 (락 유지 시간, undo 크기 제한)
+    // ex) chunkedUpdate(member, member.id, update -> update.set(..).where(..), ChunkOptions.of(1000))
+    protected long chunkedUpdate(EntityPath<?> target, NumberPath<Long> idPath,
+                                 Function<JPAUpdateClause, JPAUpdateClause> update,
+                                 ChunkOptions options) {
+        return executeChunked(target, idPath, options, (from, to) -> {
+            JPAUpdateClause clause = update.apply(getQueryFactory().update(target));
+            return clause.where(idPath.gt(from), idPath.loe(to)).execute();
+        });
+    }
+
+    protected long chunkedDelete(EntityPath<?> target, NumberPath<Long> idPath,
+                                 Function<JPADeleteClause, JPADeleteClause> delete,
+                                 ChunkOptions options) {
+        return executeChunked(target, idPath, options, (from, to) -> {
+            JPADeleteClause clause = delete.apply(getQueryFactory().delete(target));
+            return clause.where(idPath.gt(from), idPath.loe(to)).execute();
+        });
+    }
+
+    // 시작 시점의 최대 id까지만 처리, 호출하는 쪽 트랜잭션과 무관하게 청크마다 새 트랜잭션 (트랜잭션 밖에서 호출할 것)
+    private long executeChunked(EntityPath<?> target, NumberPath<Long> idPath, ChunkOptions options,
+                                ChunkExecution execution) {
+        Tuple bounds = getQueryFactory()
+                .select(idPath.min(), idPath.max())
+                .from(target)
+                .fetchOne();
+        Long minId = bounds == null ? null : bounds.get(idPath.min());
+        Long maxId = bounds == null ? null : bounds.get(idPath.max());
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long cursor = options.getResumeAfter() != null ? options.getResumeAfter() : minId - 1;
+        long totalAffected = 0;
+        int chunk = 0;
+        while (cursor < maxId) {
+            long from = cursor;
+            long to = Math.min(from + options.getChunkSize(), maxId);
+            long affected;
+            try {
+                affected = chunkTransaction.execute(status -> {
+                    long count = execution.execute(from, to);
+                    afterBulk(target);
+                    return count;
+                });
+            } catch (RuntimeException e) {
+                throw new ChunkedBulkException("Bulk operation failed after id " + cursor, cursor, totalAffected, e);
+            }
+            cursor = to;
+            totalAffected += affected;
+            chunk++;
+
+            try {
+                options.getProgressListener().accept(new BulkProgress(chunk, from, to, maxId, affected, totalAffected));
+            } catch (RuntimeException e) {
+                throw new ChunkedBulkException("Bulk operation stopped after id " + cursor, cursor, totalAffected, e);
+            }
+            if (cursor < maxId) {
+                pause(options, cursor, totalAffected);
+            }
+        }
+        getEntityManager().clear(); // 호출한 쪽 영속성 컨텍스트의 엔티티도 최신이 아님
+        return totalAffected;
+    }
+
+    private static void pause(ChunkOptions options, long cursor, long totalAffected) {
+        if (options.getPause().isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(options.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChunkedBulkException("Bulk operation interrupted after id " + cursor, cursor, totalAffected, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkExecution {
+        long execute(long fromExclusive, long toInclusive);
+    }
+
+    private void afterBulk(EntityPath<?> target) {
+        getEntityManager().clear();
+        eventPublisher.publishEvent(new EntityChangedEvent(target.getType(), true));
+    }
+
+    // 커서 기반 페이징 - member_id 같은 유일 키 기준으로 seek, offset 없음
+    protected <T> Slice<T> applyKeysetPagination(NumberPath<Long> idPath, Long lastId, int size,
+                                                 Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        jpaQuery.where(lastId == null ? null : idPath.gt(lastId));
+        jpaQuery.orderBy(idPath.asc());
+        return toSlice(jpaQuery, size);
+    }
+
+    // 커서 기반 페이징 - (정렬 키, id) 튜플 기준으로 seek, 정렬 키가 중복되어도 순서가 안정적
+    // 정렬 키가 null인 로우는 마지막 (nulls last) - 이전 페이지 마지막 로우의 정렬 키가 null이면 lastKey 없이 lastId만 넘긴다
+    protected <T, K extends Comparable<? super K>> Slice<T> applyKeysetPagination(
+            ComparableExpressionBase<K> sortKey, K lastKey,
+            NumberPath<Long> idPath, Long lastId, int size,
+            Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        Assert.isTrue(lastKey == null || lastId != null, "lastId must be given with lastKey!");
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        jpaQuery.where(seekAfter(sortKey, lastKey, idPath, lastId));
+        jpaQuery.orderBy(sortKey.asc().nullsLast(), idPath.asc());
+        return toSlice(jpaQuery, size);
+    }
+
+    private <K extends Comparable<? super K>> BooleanExpression seekAfter(
+            ComparableExpressionBase<K> sortKey, K lastKey, NumberPath<Long> idPath, Long lastId) {
+        if (lastId == null) {
+            return null; // 첫 페이지
+        }
+        if (lastKey == null) {
+            // null 구간 안에서는 id 순서
+            return sortKey.isNull().and(idPath.gt(lastId));
+        }
+        Expression<K> key = Expressions.constant(lastKey);
+        // sortKey > :lastKey or (sortKey = :lastKey and id > :lastId) or sortKey is null
+        return Expressions.predicate(Ops.GT, sortKey, key)
+                .or(Expressions.predicate(Ops.EQ, sortKey, key).and(idPath.gt(lastId)))
+                .or(sortKey.isNull());
+    }
+
+    private <T> Slice<T> toSlice(JPAQuery jpaQuery, int size) {
+        Assert.isTrue(size > 0, "Size must be greater than zero!");
+        return SliceQuery.fetch(jpaQuery, PageRequest.ofSize(size));
+    }
+
 }
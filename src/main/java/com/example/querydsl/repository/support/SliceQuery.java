@@ -0,0 +1,37 @@
+package com.example.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * 카운트 없는 페이징 - 페이지 사이즈 + 1개를 조회해 다음 페이지 여부만 판단
+ *
+ * 정렬은 호출한 쪽에서 적용하고 offset/limit만 여기서 적용한다.
+ * unpaged면 offset/limit 없이 전부 조회하고 다음 페이지는 없다.
+ */
+public final class SliceQuery {
+
+    private SliceQuery() {
+    }
+
+    public static <T> Slice<T> fetch(JPAQuery<T> query, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.fetch(), pageable, false);
+        }
+        int size = pageable.getPageSize();
+        List<T> content = query
+                .offset(pageable.getOffset())
+                .limit(size + 1L) // 다음 페이지 존재 여부 확인용으로 하나 더 (Integer.MAX_VALUE 크기에서도 넘치지 않도록 long)
+                .fetch();
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+}
@@ -0,0 +1,357 @@
+package com.example.querydsl.repository.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * select 절 집계 서브쿼리 실행 바꾸기
+ *
+ * select(member.username, select(memberSub.age.avg()).from(memberSub)).from(member) 처럼
+ * select 절 서브쿼리는 바깥 로우마다 다시 계산될 수 있으므로(상관 서브쿼리는 항상) 로우 수에 비례해 느려진다.
+ * 서브쿼리마다 집계 쿼리를 한번만 실행하고 바깥 쿼리 결과에 메모리에서 합친다.
+ * - 비상관 서브쿼리 : 집계 쿼리 한번, 모든 로우에 같은 값
+ * - 상관 서브쿼리 : where의 (서브쿼리 경로 = 바깥 경로) 조건을 group by 키로 바꾼 집계 쿼리 한번,
+ *   바깥 쿼리에 키 컬럼을 추가로 조회해 키로 찾는다. 맞는 그룹이 없으면 count는 0, 나머지 집계는 null (SQL과 같다)
+ *   엔티티 경로 비교(memberSub.team = member.team)는 id 비교로 바꾼다
+ * 결과 모양(Tuple, Projections.*, @QueryProjection)은 원래 프로젝션으로 만들므로 그대로다.
+ * 집계 쿼리는 바깥 쿼리의 where, limit과 상관없이 전체 그룹을 집계하므로 바깥 로우가 아주 적으면 원래 쿼리가 빠를 수 있다.
+ *
+ * 다음 경우에는 바꾸지 않고 원래 쿼리를 실행한다
+ * - select 절에 서브쿼리가 없음
+ * - 서브쿼리에 group by, having, limit이 있거나 상관 조건이 = 비교가 아님, 중첩 서브쿼리
+ * - 상관 서브쿼리인데 프로젝션이 집계가 아님, 바깥 쿼리에 distinct/group by가 있음, 정렬에 서브쿼리 사용
+ */
+public final class SubQueryProjectionRewriter {
+
+    private static final Set<Operator> AGGREGATES = Set.of(
+            Ops.AggOps.AVG_AGG, Ops.AggOps.SUM_AGG, Ops.AggOps.MIN_AGG, Ops.AggOps.MAX_AGG,
+            Ops.AggOps.COUNT_AGG, Ops.AggOps.COUNT_DISTINCT_AGG, Ops.AggOps.COUNT_ALL_AGG);
+    private static final Set<Operator> COUNTS = Set.of(
+            Ops.AggOps.COUNT_AGG, Ops.AggOps.COUNT_DISTINCT_AGG, Ops.AggOps.COUNT_ALL_AGG);
+
+    private SubQueryProjectionRewriter() {
+    }
+
+    public static <T> List<T> fetch(EntityManager em, JPAQuery<T> query) {
+        Plan plan = plan(em, query.getMetadata());
+        return plan == null ? query.fetch() : plan.execute(em, query);
+    }
+
+    // 바꿔서 실행할 수 있는 모양인지
+    public static boolean isRewritable(EntityManager em, JPAQuery<?> query) {
+        return plan(em, query.getMetadata()) != null;
+    }
+
+    private static Plan plan(EntityManager em, QueryMetadata metadata) {
+        Expression<?> projection = metadata.getProjection();
+        if (projection == null) {
+            return null;
+        }
+        FactoryExpression<?> factory = projection instanceof FactoryExpression ? (FactoryExpression<?>) projection : null;
+        List<Expression<?>> args = factory != null ? factory.getArgs() : List.of(projection);
+        Set<Path<?>> outerRoots = joinRoots(metadata);
+
+        Plan plan = new Plan(args, factory);
+        for (int i = 0; i < args.size(); i++) {
+            SubQueryExpression<?> subQuery = subQuery(args.get(i));
+            if (subQuery == null) {
+                plan.outerSelect.add(args.get(i));
+                continue;
+            }
+            SubQueryPlan subQueryPlan = subQueryPlan(em, subQuery, outerRoots);
+            if (subQueryPlan == null) {
+                return null;
+            }
+            if (!subQueryPlan.outerKeys.isEmpty()) {
+                if (metadata.isDistinct() || !metadata.getGroupBy().isEmpty()) {
+                    return null; // 키 컬럼을 추가하면 결과가 달라진다
+                }
+                subQueryPlan.keyIndex = plan.outerKeys.size();
+                plan.outerKeys.addAll(subQueryPlan.outerKeys);
+            }
+            plan.subQueries.put(i, subQueryPlan);
+        }
+        if (plan.subQueries.isEmpty()) {
+            return null;
+        }
+        for (OrderSpecifier<?> order : metadata.getOrderBy()) {
+            if (roots(order.getTarget()) == null) {
+                return null;
+            }
+        }
+        return plan;
+    }
+
+    private static SubQueryPlan subQueryPlan(EntityManager em, SubQueryExpression<?> subQuery, Set<Path<?>> outerRoots) {
+        QueryMetadata metadata = subQuery.getMetadata();
+        if (!metadata.getGroupBy().isEmpty() || metadata.getHaving() != null
+                || metadata.getModifiers().isRestricting()) {
+            return null;
+        }
+        Set<Path<?>> subRoots = joinRoots(metadata);
+        for (JoinExpression join : metadata.getJoins()) {
+            Set<Path<?>> roots = join.getCondition() == null ? Set.of() : roots(join.getCondition());
+            if (roots == null || !subRoots.containsAll(roots)) {
+                return null;
+            }
+        }
+
+        List<Predicate> local = new ArrayList<>();
+        List<Expression<?>> subKeys = new ArrayList<>();
+        List<Expression<?>> outerKeys = new ArrayList<>();
+        for (Predicate conjunct : conjuncts(metadata.getWhere())) {
+            Set<Path<?>> roots = roots(conjunct);
+            if (roots == null) {
+                return null;
+            }
+            if (subRoots.containsAll(roots)) {
+                local.add(conjunct);
+                continue;
+            }
+            Path<?>[] keys = correlation(conjunct, subRoots);
+            if (keys == null || !outerRoots.contains(keys[1].getRoot())) {
+                return null;
+            }
+            subKeys.add(key(em, keys[0]));
+            outerKeys.add(key(em, keys[1]));
+        }
+
+        Expression<?> value = metadata.getProjection();
+        if (outerKeys.isEmpty()) {
+            return new SubQueryPlan(metadata.clone(), outerKeys, null);
+        }
+        if (!(value instanceof Operation) || !AGGREGATES.contains(((Operation<?>) value).getOperator())) {
+            return null;
+        }
+        QueryMetadata aggregate = metadata.clone();
+        aggregate.clearWhere();
+        local.forEach(aggregate::addWhere);
+        subKeys.forEach(aggregate::addGroupBy);
+        List<Expression<?>> select = new ArrayList<>(subKeys);
+        select.add(value);
+        aggregate.setProjection(Projections.tuple(select));
+        Object emptyValue = COUNTS.contains(((Operation<?>) value).getOperator()) ? 0L : null;
+        return new SubQueryPlan(aggregate, outerKeys, emptyValue);
+    }
+
+    // (서브쿼리 경로, 바깥 경로), 상관 = 조건이 아니면 null
+    private static Path<?>[] correlation(Predicate conjunct, Set<Path<?>> subRoots) {
+        if (!(conjunct instanceof Operation) || ((Operation<?>) conjunct).getOperator() != Ops.EQ) {
+            return null;
+        }
+        Expression<?> left = ((Operation<?>) conjunct).getArg(0);
+        Expression<?> right = ((Operation<?>) conjunct).getArg(1);
+        if (!(left instanceof Path) || !(right instanceof Path)) {
+            return null;
+        }
+        boolean leftInner = subRoots.contains(((Path<?>) left).getRoot());
+        boolean rightInner = subRoots.contains(((Path<?>) right).getRoot());
+        if (leftInner == rightInner) {
+            return null;
+        }
+        return leftInner ? new Path<?>[]{(Path<?>) left, (Path<?>) right} : new Path<?>[]{(Path<?>) right, (Path<?>) left};
+    }
+
+    // 엔티티 경로는 id 경로로 (member.team -> member.team.id, 조인 없이 외래 키)
+    private static Expression<?> key(EntityManager em, Path<?> path) {
+        if (!path.getType().isAnnotationPresent(Entity.class)) {
+            return path;
+        }
+        SingularAttribute<?, ?> id = em.getMetamodel().entity(path.getType()).getSingularAttributes().stream()
+                .filter(SingularAttribute::isId)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No id attribute in " + path.getType()));
+        return Expressions.path(id.getJavaType(), path, id.getName());
+    }
+
+    private static SubQueryExpression<?> subQuery(Expression<?> arg) {
+        if (arg instanceof SubQueryExpression) {
+            return (SubQueryExpression<?>) arg;
+        }
+        if (arg instanceof Operation && ((Operation<?>) arg).getOperator() == Ops.ALIAS
+                && ((Operation<?>) arg).getArg(0) instanceof SubQueryExpression) {
+            return (SubQueryExpression<?>) ((Operation<?>) arg).getArg(0);
+        }
+        return null;
+    }
+
+    // from, join 대상 별칭 (join(member.team, team)이면 team)
+    private static Set<Path<?>> joinRoots(QueryMetadata metadata) {
+        Set<Path<?>> roots = new HashSet<>();
+        for (JoinExpression join : metadata.getJoins()) {
+            Expression<?> target = join.getTarget();
+            if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+                roots.add((Path<?>) ((Operation<?>) target).getArg(1));
+            } else if (target instanceof Path) {
+                roots.add(((Path<?>) target).getRoot());
+            }
+        }
+        return roots;
+    }
+
+    // 표현식이 참조하는 루트 경로들, 서브쿼리가 있으면 null
+    private static Set<Path<?>> roots(Expression<?> expression) {
+        Set<Path<?>> roots = new HashSet<>();
+        return collectRoots(expression, roots) ? roots : null;
+    }
+
+    private static boolean collectRoots(Expression<?> expression, Set<Path<?>> roots) {
+        if (expression instanceof Path) {
+            roots.add(((Path<?>) expression).getRoot());
+            return true;
+        }
+        if (expression instanceof Constant || expression instanceof ParamExpression) {
+            return true;
+        }
+        if (expression instanceof Operation || expression instanceof FactoryExpression) {
+            List<Expression<?>> args = expression instanceof Operation
+                    ? ((Operation<?>) expression).getArgs() : ((FactoryExpression<?>) expression).getArgs();
+            return args.stream().allMatch(arg -> collectRoots(arg, roots));
+        }
+        if (expression instanceof TemplateExpression) {
+            return ((TemplateExpression<?>) expression).getArgs().stream()
+                    .allMatch(arg -> !(arg instanceof Expression) || collectRoots((Expression<?>) arg, roots));
+        }
+        return false;
+    }
+
+    private static List<Predicate> conjuncts(Predicate predicate) {
+        if (predicate == null) {
+            return Collections.emptyList();
+        }
+        if (predicate instanceof Operation && ((Operation<?>) predicate).getOperator() == Ops.AND) {
+            List<Predicate> conjuncts = new ArrayList<>();
+            for (Expression<?> arg : ((Operation<?>) predicate).getArgs()) {
+                conjuncts.addAll(conjuncts((Predicate) arg));
+            }
+            return conjuncts;
+        }
+        return List.of(predicate);
+    }
+
+    private static class Plan {
+
+        final List<Expression<?>> args; // 원래 프로젝션 인자
+        final FactoryExpression<?> factory; // null이면 단일 프로젝션
+        final List<Expression<?>> outerSelect = new ArrayList<>(); // 서브쿼리가 아닌 인자
+        final List<Expression<?>> outerKeys = new ArrayList<>(); // 상관 서브쿼리 키 (outerSelect 뒤에 조회)
+        final Map<Integer, SubQueryPlan> subQueries = new HashMap<>(); // 인자 위치 -> 서브쿼리
+
+        Plan(List<Expression<?>> args, FactoryExpression<?> factory) {
+            this.args = args;
+            this.factory = factory;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> List<T> execute(EntityManager em, JPAQuery<T> query) {
+            for (SubQueryPlan subQuery : subQueries.values()) {
+                subQuery.load(em);
+            }
+
+            List<Expression<?>> select = new ArrayList<>(outerSelect);
+            select.addAll(outerKeys);
+            if (select.isEmpty()) {
+                select.add(Expressions.numberTemplate(Integer.class, "1")); // 서브쿼리만 조회 - 로우 수만 필요 (상수 파라미터는 select 절에 못 쓴다)
+            }
+            List<Tuple> rows = query.clone().select(Projections.tuple(select)).fetch();
+
+            List<T> results = new ArrayList<>(rows.size());
+            int keyStart = outerSelect.size();
+            for (Tuple row : rows) {
+                Object[] values = new Object[args.size()];
+                int column = 0;
+                for (int i = 0; i < args.size(); i++) {
+                    SubQueryPlan subQuery = subQueries.get(i);
+                    values[i] = subQuery == null ? row.get(column++, Object.class) : subQuery.value(row, keyStart);
+                }
+                results.add((T) (factory == null ? values[0] : factory.newInstance(values)));
+            }
+            return results;
+        }
+    }
+
+    private static class SubQueryPlan {
+
+        final QueryMetadata aggregate; // 한번 실행할 쿼리
+        final List<Expression<?>> outerKeys; // 비어 있으면 비상관
+        final Object emptyValue; // 키에 맞는 그룹이 없을 때
+        int keyIndex; // 바깥 쿼리 키 컬럼 중 이 서브쿼리 키 시작 위치
+
+        private Object value; // 비상관 결과
+        private Map<Object, Object> values; // 상관 - 키 -> 결과
+
+        SubQueryPlan(QueryMetadata aggregate, List<Expression<?>> outerKeys, Object emptyValue) {
+            this.aggregate = aggregate;
+            this.outerKeys = outerKeys;
+            this.emptyValue = emptyValue;
+        }
+
+        void load(EntityManager em) {
+            if (outerKeys.isEmpty()) {
+                value = new JPAQuery<>(em, aggregate.clone()).fetchOne();
+                return;
+            }
+            values = new HashMap<>();
+            List<?> rows = new JPAQuery<>(em, aggregate.clone()).fetch();
+            for (Object row : rows) {
+                Tuple tuple = (Tuple) row;
+                Object key = key(tuple, 0);
+                if (key != null) {
+                    values.put(key, tuple.get(outerKeys.size(), Object.class));
+                }
+            }
+        }
+
+        Object value(Tuple row, int keyStart) {
+            if (values == null) {
+                return value;
+            }
+            Object key = key(row, keyStart + keyIndex);
+            return key == null ? emptyValue : values.getOrDefault(key, emptyValue);
+        }
+
+        // 키 하나면 값 그대로, 여러 개면 List, null이 있으면 (= 비교로 맞을 수 없으므로) null
+        private Object key(Tuple tuple, int start) {
+            if (outerKeys.size() == 1) {
+                return tuple.get(start, Object.class);
+            }
+            Object[] key = new Object[outerKeys.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = tuple.get(start + i, Object.class);
+                if (key[i] == null) {
+                    return null;
+                }
+            }
+            return Arrays.asList(key);
+        }
+    }
+
+}
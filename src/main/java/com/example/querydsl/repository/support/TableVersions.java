@@ -0,0 +1,137 @@
+package com.example.querydsl.repository.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import javax.persistence.Table;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 테이블별 변경 버전 - 조건부 GET(ETag)용
+ *
+ * 실행되는 insert/update/delete/merge SQL을 p6spy로 보고 테이블 버전을 올리므로
+ * 엔티티 저장뿐 아니라 JPQL/네이티브 벌크 연산도 반영된다.
+ * 실행 시점에 한번, 트랜잭션 종료 후 한번 더 올린다. (커밋 전에 이전 데이터를 읽은 응답의 ETag가 계속 유효하지 않도록)
+ * 조회 쪽은 데이터를 읽기 전에 버전(ETag)을 먼저 계산해야 한다.
+ *
+ * 버전은 프로세스 메모리에만 있으므로 ETag에 인스턴스 id를 넣어 다른 인스턴스(재시작 포함)가 만든 ETag는 항상 불일치로 본다.
+ * 버전은 primary에 쓴 시점 기준이므로 replica를 쓰는 조회는 changedWithin(max-lag) 동안 primary에서 읽어야 한다.
+ * 다른 인스턴스의 쓰기는 보지 못하므로 여러 인스턴스가 같은 DB에 쓰는 구성에서는 인스턴스 고정(sticky) 필요
+ */
+@Component
+public class TableVersions extends SimpleJdbcEventListener {
+
+    private static final Pattern COMMENT = Pattern.compile("^\\s*(/\\*.*?\\*/\\s*)*", Pattern.DOTALL);
+    private static final Pattern WRITE = Pattern.compile(
+            "^(?:insert\\s+into|update|delete\\s+from|delete|merge\\s+into|truncate\\s+table)\\s+\"?(?:\\w+\"?\\.\"?)?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>(); // 마지막으로 버전을 올린 시각
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String table = writtenTable(statementInformation.getSql());
+        if (table != null) {
+            changed(table);
+        }
+    }
+
+    public void changed(String table) {
+        bump(table);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // 트랜잭션마다 종료 콜백 하나 (배치 insert 로우마다 등록하지 않도록)
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> tables = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableVersions.this);
+                    tables.forEach(TableVersions.this::bump);
+                }
+            });
+            pending = tables;
+        }
+        pending.add(table);
+    }
+
+    public long version(String table) {
+        AtomicLong version = versions.get(table.toLowerCase(Locale.ROOT));
+        return version == null ? 0 : version.get();
+    }
+
+    // window 안에 엔티티 테이블이 바뀌었는지 (복제 지연 동안 replica 대신 primary에서 읽을지 판단)
+    public boolean changedWithin(Duration window, Class<?>... entityTypes) {
+        long since = System.currentTimeMillis() - window.toMillis();
+        for (Class<?> entityType : entityTypes) {
+            Long changed = changedAt.get(tableName(entityType));
+            if (changed != null && changed >= since) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 엔티티 테이블 버전과 요청 키(정규화된 조건, 페이지 등)로 만든 약한 ETag
+     * ex) etag(CountCache.key("v1", condition.normalize()), Member.class, Team.class)
+     */
+    public String etag(Object key, Class<?>... entityTypes) {
+        long version = 0;
+        for (Class<?> entityType : entityTypes) {
+            version += version(tableName(entityType)); // 버전은 증가만 하므로 합도 바뀐다
+        }
+        String digest = DigestUtils.md5DigestAsHex(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + instanceId + "-" + version + "-" + digest + "\"";
+    }
+
+    private void bump(String table) {
+        versions.computeIfAbsent(table, key -> new AtomicLong()).incrementAndGet();
+        changedAt.put(table, System.currentTimeMillis());
+    }
+
+    // 쓰기 SQL이면 테이블 이름(소문자), 아니면 null
+    static String writtenTable(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher comment = COMMENT.matcher(sql);
+        int start = comment.lookingAt() ? comment.end() : 0;
+        if (start >= sql.length() || Character.toLowerCase(sql.charAt(start)) == 's') {
+            return null; // select는 빠르게 제외
+        }
+        Matcher write = WRITE.matcher(sql).region(start, sql.length());
+        return write.lookingAt() ? write.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+
+    // @Table(name)이 없으면 스프링 부트 기본 네이밍(snake_case)
+    public static String tableName(Class<?> entityType) {
+        Table table = entityType.getAnnotation(Table.class);
+        if (table != null && !table.name().isEmpty()) {
+            return table.name().toLowerCase(Locale.ROOT);
+        }
+        return entityType.getSimpleName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+}
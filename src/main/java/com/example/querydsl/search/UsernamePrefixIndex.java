@@ -0,0 +1,245 @@
+package com.example.querydsl.search;
+
+import com.example.querydsl.datasource.PrimaryRoute;
+import com.example.querydsl.entity.EntityChangedEvent;
+import com.example.querydsl.entity.EntityCommittedEvent;
+import com.example.querydsl.entity.Member;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.querydsl.entity.QMember.member;
+
+/**
+ * 회원 이름 자동완성 인덱스 - username like 'prefix%' 를 DB에 보내지 않고 메모리에서 찾는다
+ *
+ * 정렬된 집합(ConcurrentSkipListSet)에 "username\0memberId"를 넣어 두고 prefix 범위만 읽으므로
+ * 조회 비용은 O(log n + limit). 같은 이름의 회원은 하나로 합친다.
+ * 커밋된 엔티티 변경(EntityCommittedEvent)으로 갱신하고, 변경 전 이름을 모르는 수정이나 벌크 연산 후에는
+ * 백그라운드에서 다시 만든다. 만드는 동안, 또는 회원 수가 max-entries를 넘으면 SQL로 조회한다.
+ */
+@Slf4j
+@Component
+public class UsernamePrefixIndex implements DisposableBean {
+
+    private static final char SEPARATOR = '\0';
+    private static final int LOAD_CHUNK = 10_000;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxEntries;
+    private final Counter indexHits;
+    private final Counter sqlFallbacks;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "username-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile NavigableSet<String> entries; // null이면 사용 불가 (만드는 중, 너무 큼)
+    private List<EntityCommittedEvent> pending; // 만드는 동안 커밋된 변경 - 끝나면 다시 적용
+    private boolean rebuildScheduled;
+    private final Object rebuildLock = new Object();
+
+    public UsernamePrefixIndex(JPAQueryFactory queryFactory,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry,
+                               @Value("${querydsl.autocomplete.max-entries:500000}") int maxEntries) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxEntries = maxEntries;
+        this.indexHits = Counter.builder("autocomplete.requests").tag("source", "index").register(registry);
+        this.sqlFallbacks = Counter.builder("autocomplete.requests").tag("source", "sql").register(registry);
+        Gauge.builder("autocomplete.index.size", this, index -> index.size()).register(registry);
+    }
+
+    // prefix로 시작하는 회원 이름 (이름순, 중복 제거) 최대 limit개
+    public List<String> complete(String prefix, int limit) {
+        NavigableSet<String> current = entries;
+        if (current == null) {
+            sqlFallbacks.increment();
+            return completeFromDatabase(prefix, limit);
+        }
+        indexHits.increment();
+        List<String> result = new ArrayList<>(limit);
+        for (String entry : current.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            String username = entry.substring(0, entry.lastIndexOf(SEPARATOR));
+            if (result.isEmpty() || !result.get(result.size() - 1).equals(username)) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(username);
+            }
+        }
+        return result;
+    }
+
+    public boolean isReady() {
+        return entries != null;
+    }
+
+    public int size() {
+        NavigableSet<String> current = entries;
+        return current == null ? 0 : current.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public synchronized void onCommitted(EntityCommittedEvent event) {
+        if (event.getEntityType() != Member.class) {
+            return;
+        }
+        if (event.getType() == EntityCommittedEvent.Type.UPDATE && !event.hasOldState()) {
+            requestRebuild();
+            return;
+        }
+        if (pending != null) {
+            pending.add(event);
+        } else if (entries != null) {
+            apply(entries, event);
+        }
+    }
+
+    // 벌크 연산은 어떤 로우가 바뀌었는지 모르므로 커밋 후 다시 만든다
+    @EventListener
+    public void onBulkChanged(EntityChangedEvent event) {
+        if (!event.isBulk() || event.getEntityType() != Member.class) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        requestRebuild();
+                    }
+                }
+            });
+        } else {
+            requestRebuild();
+        }
+    }
+
+    // 백그라운드에서 다시 만든다 - 이미 예약되어 있으면 합친다
+    public synchronized void requestRebuild() {
+        entries = null;
+        if (!rebuildScheduled) {
+            rebuildScheduled = true;
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    // id 순서로 나눠 읽는다 (긴 트랜잭션 없이), 동시에 하나만
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            doRebuild();
+        }
+    }
+
+    private void doRebuild() {
+        synchronized (this) {
+            rebuildScheduled = false;
+            entries = null;
+            pending = new ArrayList<>();
+        }
+        NavigableSet<String> loaded = new ConcurrentSkipListSet<>();
+        boolean tooLarge = false;
+        try {
+            Long lastId = 0L;
+            while (lastId != null && !tooLarge) {
+                Long from = lastId;
+                // 벌크 연산 직후에도 다시 만들므로 복제가 밀린 replica가 아닌 primary에서 (이후 보정이 없다)
+                List<Tuple> rows = PrimaryRoute.call(() -> readOnlyTransaction.execute(status -> queryFactory
+                        .select(member.id, member.username)
+                        .from(member)
+                        .where(member.id.gt(from))
+                        .orderBy(member.id.asc())
+                        .limit(LOAD_CHUNK)
+                        .fetch()));
+                for (Tuple row : rows) {
+                    add(loaded, row.get(member.username), row.get(member.id));
+                }
+                lastId = rows.size() < LOAD_CHUNK ? null : rows.get(rows.size() - 1).get(member.id);
+                tooLarge = loaded.size() > maxEntries;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to build username index, falling back to SQL", e);
+            tooLarge = true;
+        }
+
+        synchronized (this) {
+            if (tooLarge) {
+                log.warn("Username index disabled: more than {} members", maxEntries);
+            } else {
+                pending.forEach(event -> apply(loaded, event)); // 읽는 도중 커밋된 변경 (다시 적용해도 같은 결과)
+            }
+            pending = null;
+            entries = tooLarge || rebuildScheduled ? null : loaded;
+        }
+    }
+
+    // 인덱스를 다시 만드는 중(벌크 연산 직후)에만 쓰므로 이것도 primary에서
+    private List<String> completeFromDatabase(String prefix, int limit) {
+        return PrimaryRoute.call(() -> readOnlyTransaction.execute(status -> queryFactory
+                .select(member.username)
+                .distinct()
+                .from(member)
+                .where(member.username.startsWith(prefix))
+                .orderBy(member.username.asc())
+                .limit(limit)
+                .fetch()));
+    }
+
+    private static void apply(NavigableSet<String> set, EntityCommittedEvent event) {
+        if (event.getType() != EntityCommittedEvent.Type.INSERT) {
+            remove(set, (String) event.getOld("username"), event.getId());
+        }
+        if (event.getType() != EntityCommittedEvent.Type.DELETE) {
+            add(set, (String) event.get("username"), event.getId());
+        }
+    }
+
+    private static void add(NavigableSet<String> set, String username, Object id) {
+        if (username != null) {
+            set.add(username + SEPARATOR + id);
+        }
+    }
+
+    private static void remove(NavigableSet<String> set, String username, Object id) {
+        if (username != null) {
+            set.remove(username + SEPARATOR + id);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.example.querydsl.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * 시작 시 데이터 생성 (local, seed 프로필) - 설정은 querydsl.seed.*
+ * 애플리케이션 컨텍스트가 뜬 뒤 요청을 받기 전에 실행되고, 회원이 이미 있으면 건너뛴다.
+ */
+@Slf4j
+@Profile({"local", "seed"})
+@Component
+public class DatasetSeedRunner implements ApplicationRunner {
+
+    private final DatasetSeeder seeder;
+    private final SeedOptions options;
+
+    public DatasetSeedRunner(DataSource dataSource,
+                             @Value("${querydsl.seed.teams:2}") int teams,
+                             @Value("${querydsl.seed.members:100}") int members,
+                             @Value("${querydsl.seed.team-skew:0}") double teamSkew,
+                             @Value("${querydsl.seed.age-mean:50}") double ageMean,
+                             @Value("${querydsl.seed.age-stddev:0}") double ageStddev,
+                             @Value("${querydsl.seed.workers:4}") int workers,
+                             @Value("${querydsl.seed.batch-size:1000}") int batchSize) {
+        this.seeder = new DatasetSeeder(dataSource);
+        this.options = SeedOptions.of(teams, members)
+                .teamSkew(teamSkew)
+                .ageNormal(ageMean, ageStddev)
+                .workers(workers)
+                .batchSize(batchSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!seeder.isEmpty()) {
+            log.info("Members already exist, skipping seed");
+            return;
+        }
+        seeder.seed(options);
+    }
+
+}
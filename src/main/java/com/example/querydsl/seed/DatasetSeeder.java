@@ -0,0 +1,188 @@
+package com.example.querydsl.seed;
+
+import com.example.querydsl.entity.Member;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 팀, 회원 대량 생성 - 엔티티를 거치지 않고 JDBC 배치 insert
+ *
+ * 팀 이름 team0 ~ team{teams-1}, 회원 이름 member0 ~ member{members-1}
+ * 회원은 id 범위로 나눠 워커 스레드마다 자기 커넥션으로 넣는다.
+ * id는 직접 채우고 끝나면 hibernate_sequence, member_seq를 다음 값으로 다시 맞추므로 이후 persist와 충돌하지 않는다.
+ * (member_seq는 pooled - 시퀀스 값이 받아 둔 id 구간의 끝이므로 구간 크기만큼 더해서 맞춘다)
+ * 하이버네이트를 거치지 않으므로 2차 캐시 등은 비어 있는 상태(시작 시점)에서만 사용할 것
+ */
+@Slf4j
+public class DatasetSeeder {
+
+    private static final String SEQUENCE = "hibernate_sequence";
+    private static final String MEMBER_SEQUENCE = "member_seq";
+    private static final String INSERT_TEAM = "insert into team (team_id, name) values (?, ?)";
+    private static final String INSERT_MEMBER = "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public DatasetSeeder(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public boolean isEmpty() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             var resultSet = statement.executeQuery("select count(*) from member")) {
+            resultSet.next();
+            return resultSet.getLong(1) == 0;
+        }
+    }
+
+    // 넣은 로우 수 (팀 + 회원)
+    public long seed(SeedOptions options) throws SQLException {
+        long start = System.nanoTime();
+        long firstId = nextFreeId();
+        long firstMemberId = firstId + options.getTeams();
+
+        insertTeams(options, firstId);
+        insertMembers(options, firstId, firstMemberId);
+        long next = firstMemberId + options.getMembers();
+        restartSequence(SEQUENCE, next);
+        restartSequence(MEMBER_SEQUENCE, next + Member.ID_ALLOCATION_SIZE - 1);
+
+        long rows = (long) options.getTeams() + options.getMembers();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("Seeded {} rows in {}s ({} rows/sec) {}",
+                rows, String.format("%.2f", seconds), String.format("%.0f", rows / seconds), options);
+        return rows;
+    }
+
+    private void insertTeams(SeedOptions options, long firstId) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_TEAM)) {
+                for (int i = 0; i < options.getTeams(); i++) {
+                    insert.setLong(1, firstId + i);
+                    insert.setString(2, "team" + i);
+                    insert.addBatch();
+                    if ((i + 1) % options.getBatchSize() == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private void insertMembers(SeedOptions options, long firstTeamId, long firstMemberId) throws SQLException {
+        double[] teamCdf = zipfCdf(options.getTeams(), options.getTeamSkew());
+        int workers = Math.min(options.getWorkers(), Math.max(1, options.getMembers()));
+        int rangeSize = (options.getMembers() + workers - 1) / workers;
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < workers; worker++) {
+                int from = worker * rangeSize;
+                int to = Math.min(from + rangeSize, options.getMembers());
+                Random random = new Random(options.getRandomSeed() + worker);
+                futures.add(executor.submit(() -> {
+                    insertMemberRange(options, from, to, firstTeamId, firstMemberId, teamCdf, random);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof SQLException ? (SQLException) cause : new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertMemberRange(SeedOptions options, int from, int to, long firstTeamId, long firstMemberId,
+                                   double[] teamCdf, Random random) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_MEMBER)) {
+                for (int i = from; i < to; i++) {
+                    insert.setLong(1, firstMemberId + i);
+                    insert.setString(2, "member" + i);
+                    insert.setInt(3, age(options, random));
+                    insert.setLong(4, firstTeamId + team(teamCdf, random));
+                    insert.addBatch();
+                    if ((i - from + 1) % options.getBatchSize() == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private long nextFreeId() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             var resultSet = statement.executeQuery(
+                     "select coalesce(max(id), 0) from ("
+                             + "select max(team_id) id from team union all select max(member_id) id from member) ids")) {
+            resultSet.next();
+            return resultSet.getLong(1) + 1;
+        }
+    }
+
+    // H2, PostgreSQL 공통 문법
+    private void restartSequence(String sequence, long next) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence " + sequence + " restart with " + next);
+        }
+    }
+
+    private static int age(SeedOptions options, Random random) {
+        if (options.getAgeStddev() <= 0) {
+            return random.nextInt(100);
+        }
+        long age = Math.round(options.getAgeMean() + random.nextGaussian() * options.getAgeStddev());
+        return (int) Math.max(0, Math.min(99, age));
+    }
+
+    private static int team(double[] cdf, Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    // k번째 팀의 가중치 1 / (k + 1)^skew 누적 분포
+    static double[] zipfCdf(int teams, double skew) {
+        double[] cdf = new double[teams];
+        double sum = 0;
+        for (int k = 0; k < teams; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < teams; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.example.querydsl.seed;
+
+/**
+ * 데이터 생성 옵션
+ *
+ * ex) SeedOptions.of(100, 1_000_000).teamSkew(1.0).ageNormal(35, 12).workers(8)
+ */
+public class SeedOptions {
+
+    private final int teams;
+    private final int members;
+    private double teamSkew; // zipf 지수 - 0이면 팀 크기 균등, 클수록 앞 팀에 몰린다
+    private double ageMean = 50;
+    private double ageStddev; // 0이면 0 ~ 99 균등
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 1000;
+    private long randomSeed = 42; // 같은 옵션이면 같은 데이터
+
+    private SeedOptions(int teams, int members) {
+        if (teams <= 0 || members < 0) {
+            throw new IllegalArgumentException("Invalid dataset size: teams=" + teams + ", members=" + members);
+        }
+        this.teams = teams;
+        this.members = members;
+    }
+
+    public static SeedOptions of(int teams, int members) {
+        return new SeedOptions(teams, members);
+    }
+
+    public SeedOptions teamSkew(double teamSkew) {
+        this.teamSkew = teamSkew;
+        return this;
+    }
+
+    // 평균, 표준편차 (0 ~ 99로 자른다)
+    public SeedOptions ageNormal(double mean, double stddev) {
+        this.ageMean = mean;
+        this.ageStddev = stddev;
+        return this;
+    }
+
+    // 병렬 insert 스레드 수 (스레드마다 커넥션 하나 - 커넥션 풀 크기보다 작게)
+    public SeedOptions workers(int workers) {
+        this.workers = Math.max(1, workers);
+        return this;
+    }
+
+    // JDBC 배치 크기, 배치마다 커밋
+    public SeedOptions batchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public SeedOptions randomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+        return this;
+    }
+
+    int getTeams() {
+        return teams;
+    }
+
+    int getMembers() {
+        return members;
+    }
+
+    double getTeamSkew() {
+        return teamSkew;
+    }
+
+    double getAgeMean() {
+        return ageMean;
+    }
+
+    double getAgeStddev() {
+        return ageStddev;
+    }
+
+    int getWorkers() {
+        return workers;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    long getRandomSeed() {
+        return randomSeed;
+    }
+
+    @Override
+    public String toString() {
+        return "SeedOptions(teams=" + teams + ", members=" + members + ", teamSkew=" + teamSkew
+                + ", ageMean=" + ageMean + ", ageStddev=" + ageStddev
+                + ", workers=" + workers + ", batchSize=" + batchSize + ")";
+    }
+
+}
@@ -0,0 +1,376 @@
+package com.example.querydsl.stats;
+
+import com.example.querydsl.datasource.PrimaryRoute;
+import com.example.querydsl.dto.TeamStatsDto;
+import com.example.querydsl.entity.EntityChangedEvent;
+import com.example.querydsl.entity.EntityCommittedEvent;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+
+/**
+ * 팀별 회원 나이 통계(count, sum, avg, min, max)를 메모리에 유지
+ *
+ * select team.name, count, sum, avg, min, max ... group by team.name 을 매번 실행하지 않고
+ * 커밋된 엔티티 변경(EntityCommittedEvent)으로 증분 갱신한다. (조회는 O(팀 수))
+ * min/max는 삭제, 수정에도 유지되도록 팀별 나이 히스토그램으로 관리한다. (메모리는 팀 수 x 나이 종류)
+ * 수정, 삭제는 이벤트의 변경 전 상태로 "이전 값 빼기 + 새 값 더하기"를 한다.
+ *
+ * 다음 경우에는 백그라운드에서 팀별, 나이별 집계로 다시 읽고, 그동안은 마지막 값을 그대로 돌려준다.
+ * - 벌크 update/delete (EntityChangedEvent.bulk) - 어떤 팀이 바뀌었는지 모르므로 모든 팀
+ * - 변경 전 상태를 알 수 없는 수정 (분리된 엔티티 merge) - 이전 팀을 모르므로 모든 팀
+ * - 다시 읽는 동안 변경된 팀 - 읽은 값에 그 변경이 들어 있는지 모르므로 그 팀만 한 번 더
+ * 주기적으로(querydsl.team-stats.reconcile-interval) DB 집계와 비교해 어긋나면(drift) 경고 후 교체한다.
+ */
+@Slf4j
+@Component
+public class TeamAgeStatistics implements DisposableBean {
+
+    private static final int IN_LIMIT = 1000; // 다시 읽을 팀이 이보다 많으면 in 조건 없이 모든 팀을 읽는다
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter drift;
+    private final Object loadLock = new Object();
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-stats-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Long, TeamAges> teams = new HashMap<>();
+    private final Set<Long> stale = new HashSet<>(); // 다시 읽을 팀
+    private boolean allStale; // 모든 팀을 다시 읽는다
+    private boolean reloadScheduled;
+    private Set<Long> touched; // 다시 읽는 동안 변경된 팀 - 읽은 값으로 바꾸지 않는다
+
+    public TeamAgeStatistics(JPAQueryFactory queryFactory,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry registry) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.drift = Counter.builder("team.stats.drift")
+                .description("Teams whose maintained age statistics differed from the database")
+                .register(registry);
+    }
+
+    // 팀 이름순, 다시 읽는 중이면 마지막 값
+    public List<TeamStatsDto> getStats() {
+        List<TeamStatsDto> result = new ArrayList<>();
+        synchronized (this) {
+            teams.forEach((teamId, ages) -> result.add(ages.toDto(teamId)));
+        }
+        result.sort(Comparator.comparing(TeamStatsDto::getTeamName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return result;
+    }
+
+    @EventListener
+    public synchronized void onCommitted(EntityCommittedEvent event) {
+        if (event.getEntityType() == Member.class) {
+            onMemberCommitted(event);
+        } else if (event.getEntityType() == Team.class) {
+            onTeamCommitted(event);
+        }
+    }
+
+    private void onMemberCommitted(EntityCommittedEvent event) {
+        if (event.getType() == EntityCommittedEvent.Type.UPDATE && !event.hasOldState()) {
+            requestReload(null);
+            return;
+        }
+        if (event.getType() != EntityCommittedEvent.Type.INSERT) {
+            remove(teamId(event.getOld("team")), (Integer) event.getOld("age"));
+        }
+        if (event.getType() != EntityCommittedEvent.Type.DELETE) {
+            add(teamId(event.get("team")), (Integer) event.get("age"));
+        }
+    }
+
+    private void onTeamCommitted(EntityCommittedEvent event) {
+        Long teamId = (Long) event.getId();
+        touch(teamId);
+        if (event.getType() == EntityCommittedEvent.Type.DELETE) {
+            teams.remove(teamId);
+        } else {
+            teams.computeIfAbsent(teamId, id -> new TeamAges()).name = (String) event.get("name");
+        }
+    }
+
+    // 벌크 연산은 커밋 후 모든 팀을 다시 집계
+    @EventListener
+    public void onBulkChanged(EntityChangedEvent event) {
+        if (!event.isBulk() || (event.getEntityType() != Member.class && event.getEntityType() != Team.class)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        requestReload(null);
+                    }
+                }
+            });
+        } else {
+            requestReload(null);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        requestReload(null);
+    }
+
+    // DB 집계와 비교 - 어긋난 팀 수 반환
+    @Scheduled(fixedDelayString = "${querydsl.team-stats.reconcile-interval:60000}",
+            initialDelayString = "${querydsl.team-stats.reconcile-interval:60000}")
+    public int reconcile() {
+        return load(true);
+    }
+
+    // teamIds가 null이면 모든 팀
+    private synchronized void requestReload(Set<Long> teamIds) {
+        if (teamIds == null) {
+            allStale = true;
+        } else {
+            stale.addAll(teamIds);
+        }
+        scheduleReload();
+    }
+
+    private synchronized void scheduleReload() {
+        if (!reloadScheduled) {
+            reloadScheduled = true;
+            reloader.execute(this::reloadStale);
+        }
+    }
+
+    private void reloadStale() {
+        synchronized (this) {
+            reloadScheduled = false;
+        }
+        try {
+            load(false);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload team age statistics, serving last values until the next reconcile", e);
+        }
+    }
+
+    // 다시 읽고 교체, 동시에 하나만 - reconcile이면 모든 팀을 읽어 유지하던 값과 비교하고 어긋난 팀 수 반환
+    private int load(boolean reconcile) {
+        synchronized (loadLock) {
+            Set<Long> teamIds;
+            Set<Long> wasStale;
+            boolean wasAllStale;
+            synchronized (this) {
+                if (!reconcile && !allStale && stale.isEmpty()) {
+                    return 0;
+                }
+                wasAllStale = allStale;
+                wasStale = new HashSet<>(stale);
+                teamIds = reconcile || allStale ? null : wasStale;
+                allStale = false;
+                stale.clear();
+                touched = new HashSet<>();
+            }
+
+            Map<Long, TeamAges> loaded;
+            try {
+                // 벌크 연산 직후에도 다시 읽으므로 복제가 밀린 replica가 아닌 primary에서
+                loaded = PrimaryRoute.call(() -> read(teamIds == null || teamIds.size() > IN_LIMIT ? null : teamIds));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    touched = null;
+                    allStale |= wasAllStale;
+                    stale.addAll(wasStale);
+                }
+                throw e;
+            }
+
+            int drifted = 0;
+            synchronized (this) {
+                for (Long teamId : teamIds == null ? union(teams, loaded) : teamIds) {
+                    if (touched.contains(teamId)) {
+                        // 지금 값은 이벤트로 갱신되어 있다 - 다시 읽어야 하던 팀이면 한 번 더
+                        if (wasAllStale || wasStale.contains(teamId)) {
+                            stale.add(teamId);
+                        }
+                        continue;
+                    }
+                    TeamAges current = teams.get(teamId);
+                    TeamAges expected = loaded.get(teamId);
+                    // 다시 읽어야 하던 팀은 달라도 drift가 아니다
+                    if (reconcile && !wasAllStale && !wasStale.contains(teamId) && !TeamAges.same(current, expected)) {
+                        drifted++;
+                        log.warn("Team age statistics drifted for team {}: maintained={}, database={}",
+                                teamId, current, expected);
+                    }
+                    if (expected == null) {
+                        teams.remove(teamId);
+                    } else {
+                        teams.put(teamId, expected);
+                    }
+                }
+                touched = null;
+                if (!stale.isEmpty()) {
+                    scheduleReload();
+                }
+            }
+            drift.increment(drifted);
+            return drifted;
+        }
+    }
+
+    // 팀별, 나이별 회원 수 (팀 수 x 나이 종류 만큼의 로우), teamIds가 null이면 모든 팀
+    private Map<Long, TeamAges> read(Set<Long> teamIds) {
+        return readOnlyTransaction.execute(status -> {
+            Map<Long, TeamAges> loaded = new HashMap<>();
+            List<Tuple> teamRows = queryFactory
+                    .select(team.id, team.name)
+                    .from(team)
+                    .where(teamIds == null ? null : team.id.in(teamIds))
+                    .fetch();
+            for (Tuple row : teamRows) {
+                loaded.computeIfAbsent(row.get(team.id), id -> new TeamAges()).name = row.get(team.name);
+            }
+            List<Tuple> rows = queryFactory
+                    .select(team.id, member.age, member.count())
+                    .from(member)
+                    .join(member.team, team)
+                    .where(teamIds == null ? null : team.id.in(teamIds))
+                    .groupBy(team.id, member.age)
+                    .fetch();
+            for (Tuple row : rows) {
+                TeamAges ages = loaded.computeIfAbsent(row.get(team.id), id -> new TeamAges());
+                ages.add(row.get(member.age), row.get(member.count()));
+            }
+            return loaded;
+        });
+    }
+
+    private void add(Long teamId, Integer age) {
+        if (teamId != null && age != null) {
+            touch(teamId);
+            teams.computeIfAbsent(teamId, id -> new TeamAges()).add(age, 1);
+        }
+    }
+
+    private void remove(Long teamId, Integer age) {
+        touch(teamId);
+        TeamAges ages = teamId == null ? null : teams.get(teamId);
+        if (ages != null && age != null) {
+            ages.remove(age);
+        }
+    }
+
+    private void touch(Long teamId) {
+        if (touched != null && teamId != null) {
+            touched.add(teamId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        reloader.shutdownNow();
+    }
+
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private static List<Long> union(Map<Long, TeamAges> a, Map<Long, TeamAges> b) {
+        List<Long> ids = new ArrayList<>(a.keySet());
+        b.keySet().stream().filter(id -> !a.containsKey(id)).forEach(ids::add);
+        return ids;
+    }
+
+    /**
+     * 팀 하나의 나이 분포 (나이 -> 회원 수)
+     */
+    private static class TeamAges {
+        private String name;
+        private long count;
+        private long sum;
+        private final TreeMap<Integer, Long> histogram = new TreeMap<>();
+
+        void add(int age, long members) {
+            count += members;
+            sum += (long) age * members;
+            histogram.merge(age, members, Long::sum);
+        }
+
+        void remove(int age) {
+            Long members = histogram.get(age);
+            if (members == null) {
+                return; // 이미 어긋남 - 다음 정합성 검사에서 교체
+            }
+            count--;
+            sum -= age;
+            if (members == 1) {
+                histogram.remove(age);
+            } else {
+                histogram.put(age, members - 1);
+            }
+        }
+
+        TeamStatsDto toDto(Long teamId) {
+            return new TeamStatsDto(teamId, name, count, sum,
+                    histogram.isEmpty() ? null : histogram.firstKey(),
+                    histogram.isEmpty() ? null : histogram.lastKey());
+        }
+
+        // 회원이 없는 팀은 없는 팀과 같게 본다
+        static boolean same(TeamAges a, TeamAges b) {
+            if (a == null || b == null) {
+                TeamAges other = a == null ? b : a;
+                return other == null || other.count == 0;
+            }
+            return a.count == b.count && a.sum == b.sum
+                    && Objects.equals(a.name, b.name) && a.histogram.equals(b.histogram);
+        }
+
+        @Override
+        public String toString() {
+            return "TeamAges(name=" + name + ", count=" + count + ", sum=" + sum + ")";
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.example.querydsl.controller;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 조건부 GET - 변경은 커밋되어야 반영되므로 트랜잭션을 직접 나눠서 검증
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MeterRegistry registry;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void notModifiedWithoutQuery() throws Exception {
+        String etag = etag("/v1/members?teamName=teamA");
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            mockMvc.perform(get("/v1/members?teamName=teamA").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+            assertThat(scope.getStatementCount()).isZero();
+        }
+    }
+
+    @Test
+    public void etagByConditionAndPage() throws Exception {
+        String teamA = etag("/v2/members?teamName=teamA&page=0&size=1");
+
+        assertThat(etag("/v2/members?teamName=teamA&page=0&size=1")).isEqualTo(teamA);
+        // 빈 문자열 조건은 조건 없음과 같다
+        assertThat(etag("/v2/members?teamName=&page=0&size=1"))
+                .isEqualTo(etag("/v2/members?page=0&size=1"));
+        assertThat(etag("/v2/members?teamName=teamA&page=1&size=1")).isNotEqualTo(teamA);
+        assertThat(etag("/v3/members?teamName=teamA&page=0&size=1")).isNotEqualTo(teamA);
+    }
+
+    @Test
+    public void modifiedAfterEntityChange() throws Exception {
+        String etag = etag("/v1/members");
+
+        tx.executeWithoutResult(status -> em.createQuery(
+                        "select m from Member m where m.username = 'member1'", Member.class)
+                .getSingleResult()
+                .setAge(11));
+
+        mockMvc.perform(get("/v1/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void modifiedAfterBulkUpdate() throws Exception {
+        String etag = etag("/v3/members?page=0&size=10");
+
+        tx.executeWithoutResult(status -> em.createQuery("update Team t set t.name = 'teamB'").executeUpdate());
+
+        mockMvc.perform(get("/v3/members?page=0&size=10").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void modifiedAfterRollback() throws Exception {
+        // 커밋되지 않은 쓰기도 버전을 올린다 (커밋 여부와 관계없이 종료 후 한번 더)
+        String etag = etag("/v1/members");
+
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member3", 30));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(etag("/v1/members")).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void keysetSizeValidated() throws Exception {
+        mockMvc.perform(get("/v4/members?size=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members?size=" + Integer.MAX_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(100))
+                .andExpect(jsonPath("$.content.length()").value(2));
+    }
+
+    @Test
+    public void sliceSortValidated() throws Exception {
+        mockMvc.perform(get("/v5/members?size=1&sort=age,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("member2"))
+                .andExpect(jsonPath("$.last").value(false));
+        mockMvc.perform(get("/v5/members?sort=password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void streamNdjsonLines() throws Exception {
+        MvcResult async = mockMvc.perform(get("/v1/members/stream?teamName=teamA")).andReturn();
+        String body = mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // 줄마다 구분자 없이 JSON 객체 하나
+        assertThat(body.split("\n"))
+                .hasSize(2)
+                .allMatch(line -> line.startsWith("{\"memberId\"") && line.endsWith("}"));
+    }
+
+    @Test
+    public void streamStatementsCountedForRequest() throws Exception {
+        double before = streamStatements();
+
+        MvcResult async = mockMvc.perform(get("/v1/members/stream?teamName=teamA")).andReturn();
+        mockMvc.perform(asyncDispatch(async)).andExpect(status().isOk());
+
+        // 응답을 쓰는 스레드에서 실행한 조회도 요청의 SQL 수에 들어간다
+        assertThat(streamStatements()).isGreaterThan(before);
+    }
+
+    private double streamStatements() {
+        DistributionSummary summary = registry.find("http.request.statements")
+                .tag("uri", "/v1/members/stream")
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private String etag(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+
+}
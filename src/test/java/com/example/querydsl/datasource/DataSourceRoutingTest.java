@@ -0,0 +1,131 @@
+package com.example.querydsl.datasource;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 내장 H2 두 개로 라우팅 확인 - 복제는 테스트에서 하트비트를 직접 복사해서 흉내낸다
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "querydsl.datasource.replica.enabled=true",
+        "querydsl.datasource.replica.max-lag=1s",
+        "querydsl.datasource.replica.lag-check-interval=3600000",
+        "querydsl.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.exclude-beans=routingDataSource"})
+class DataSourceRoutingTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaLagMonitor replicaLagMonitor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired @Qualifier("primaryDataSource") DataSource primaryDataSource;
+    @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void before() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("create table if not exists replica_heartbeat (id int primary key, beat bigint not null)");
+        replica.update("delete from replica_heartbeat");
+    }
+
+    @Test
+    public void readOnlyToReplica() {
+        replicaLagMonitor.check(); // primary에 하트비트 기록
+        replicate();
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isTrue();
+        assertThat(currentDatabase(true)).isEqualToIgnoringCase("routing_replica");
+        assertThat(currentDatabase(false)).isEqualToIgnoringCase("routing_primary");
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenReplicaLags() {
+        replicaLagMonitor.check();
+        replicate();
+        replica.update("update replica_heartbeat set beat = beat - 60000 where id = 1");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(currentDatabase(true)).isEqualToIgnoringCase("routing_primary");
+    }
+
+    @Test
+    public void fallbackToPrimaryWithoutHeartbeat() {
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(currentDatabase(true)).isEqualToIgnoringCase("routing_primary");
+    }
+
+    @Test
+    public void repositorySearchesToReplica() {
+        copySchemaToReplica();
+        replica.update("delete from member where username = 'replicaOnly'");
+        replica.update("insert into member (member_id, username, age) values (-1, 'replicaOnly', 10)");
+        replicaLagMonitor.check();
+        replicate();
+        replicaLagMonitor.check();
+
+        // replica에만 있는 회원이 보이면 replica에서 읽은 것
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("replicaOnly");
+        List<MemberTeamDto> searched = memberRepository.search(condition);
+        Iterable<Member> found = memberRepository.findAll(member.username.eq("replicaOnly"));
+        Iterable<Member> sorted = memberRepository.findAll(member.username.eq("replicaOnly"), member.id.asc());
+
+        assertThat(searched).extracting("username").containsExactly("replicaOnly");
+        assertThat(found).extracting("username").containsExactly("replicaOnly");
+        assertThat(sorted).extracting("username").containsExactly("replicaOnly");
+        assertThat(memberRepository.count(member.username.eq("replicaOnly"))).isEqualTo(1);
+        assertThat(memberRepository.findOne(member.username.eq("replicaOnly"))).isPresent();
+    }
+
+    // primary에 만들어진 스키마(ddl-auto)를 replica에 복사 - 하트비트 테이블은 before()에서 만든다
+    private void copySchemaToReplica() {
+        Integer tables = replica.queryForObject(
+                "select count(*) from information_schema.tables where upper(table_name) = 'MEMBER'", Integer.class);
+        if (tables != null && tables > 0) {
+            return;
+        }
+        for (String statement : primary.queryForList("script nodata", String.class)) {
+            if (!statement.startsWith("--") && !statement.toUpperCase().contains("REPLICA_HEARTBEAT")) {
+                replica.execute(statement);
+            }
+        }
+    }
+
+    private void replicate() {
+        Long beat = primary.queryForObject("select beat from replica_heartbeat where id = 1", Long.class);
+        replica.update("insert into replica_heartbeat (id, beat) values (1, ?)", beat);
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> (String) em.createNativeQuery("select database()").getSingleResult());
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.example.querydsl.datasource;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.memory.InMemoryMemberStore;
+import com.example.querydsl.repository.support.CountCache;
+import com.example.querydsl.search.UsernamePrefixIndex;
+import com.example.querydsl.stats.TeamAgeStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 복제가 밀린 replica - replica에는 primary에 없는 회원(stale)이 있고 primary에서 추가한 회원(fresh)은 없다
+ * 메모리에 적재하는 조회, 변경 직후(max-lag 이내)의 ETag 조회는 replica를 쓸 수 있는 상태에서도 primary에서 읽어야 한다
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stale_primary;DB_CLOSE_DELAY=-1",
+        "querydsl.datasource.replica.enabled=true",
+        "querydsl.datasource.replica.max-lag=10s",
+        "querydsl.datasource.replica.lag-check-interval=3600000",
+        "querydsl.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:stale_replica;DB_CLOSE_DELAY=-1",
+        "querydsl.memory-tier.enabled=true",
+        "decorator.datasource.exclude-beans=routingDataSource"})
+@AutoConfigureMockMvc
+class ReplicaStaleReadTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaLagMonitor replicaLagMonitor;
+    @Autowired InMemoryMemberStore memberStore;
+    @Autowired CountCache countCache;
+    @Autowired UsernamePrefixIndex usernamePrefixIndex;
+    @Autowired TeamAgeStatistics teamAgeStatistics;
+    @Autowired MockMvc mockMvc;
+    @Autowired @Qualifier("primaryDataSource") DataSource primaryDataSource;
+    @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        tx = new TransactionTemplate(transactionManager);
+        copySchemaToReplica();
+        replica.update("insert into member (member_id, username, age) values (-1, 'stale', 10)");
+        tx.executeWithoutResult(status -> em.persist(new Member("fresh", 20)));
+
+        replica.execute("create table if not exists replica_heartbeat (id int primary key, beat bigint not null)");
+        replica.update("delete from replica_heartbeat");
+        replicaLagMonitor.check();
+        replica.update("insert into replica_heartbeat (id, beat) values (1, ?)",
+                primary.queryForObject("select beat from replica_heartbeat where id = 1", Long.class));
+        replicaLagMonitor.check();
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isTrue();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        replica.update("delete from member");
+        replica.update("delete from team");
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void memberStoreLoadsFromPrimary() {
+        memberStore.rebuild();
+
+        assertThat(memberStore.count(member.username.eq("fresh"), false)).hasValue(1);
+        assertThat(memberStore.count(member.username.eq("stale"), false)).hasValue(0);
+    }
+
+    @Test
+    public void usernameIndexLoadsFromPrimary() {
+        usernamePrefixIndex.rebuild();
+
+        assertThat(usernamePrefixIndex.isReady()).isTrue();
+        assertThat(usernamePrefixIndex.complete("fresh", 10)).containsExactly("fresh");
+        assertThat(usernamePrefixIndex.complete("stale", 10)).isEmpty();
+    }
+
+    @Test
+    public void teamStatisticsLoadFromPrimary() {
+        // 이벤트 없이 primary에만 추가 - 다시 집계해야 보인다
+        primary.update("insert into team (team_id, name) values (-1, 'freshTeam')");
+        primary.update("insert into member (member_id, username, age, team_id) values (-2, 'freshMember', 30, -1)");
+
+        assertThat(teamAgeStatistics.reconcile()).isEqualTo(1);
+        assertThat(teamAgeStatistics.getStats())
+                .anySatisfy(stats -> {
+                    assertThat(stats.getTeamName()).isEqualTo("freshTeam");
+                    assertThat(stats.getCount()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    public void searchesAfterWriteReadPrimary() throws Exception {
+        // before()에서 fresh를 커밋한 직후 - 응답 ETag는 새 버전이므로 본문도 primary에서
+        mockMvc.perform(get("/v2/members?userName=fresh"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("fresh"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+        mockMvc.perform(get("/v2/members?userName=stale"))
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    public void countCacheSkipsReplicaCountsAfterInvalidation() {
+        countCache.invalidateAll();
+
+        countCache.get("replica", () -> 1);
+        PrimaryRoute.run(() -> countCache.get("primary", () -> 2));
+
+        assertThat(countCache.contains("replica")).isFalse();
+        assertThat(countCache.contains("primary")).isTrue();
+    }
+
+    // primary에 만들어진 스키마(ddl-auto)를 replica에 복사 - 하트비트 테이블은 따로 만든다
+    private void copySchemaToReplica() {
+        Integer tables = replica.queryForObject(
+                "select count(*) from information_schema.tables where upper(table_name) = 'MEMBER'", Integer.class);
+        if (tables != null && tables > 0) {
+            return;
+        }
+        for (String statement : primary.queryForList("script nodata", String.class)) {
+            if (!statement.startsWith("--") && !statement.toUpperCase().contains("REPLICA_HEARTBEAT")) {
+                replica.execute(statement);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.example.querydsl.guard;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.memory.InMemoryMemberStore;
+import com.example.querydsl.repository.MemberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 메모리 계층이 답하는 호출은 가드가 추정하지 않는다 - 회원 300명, 허용 50로우, 거부 200로우, 제한 실행 10로우
+ */
+@SpringBootTest(properties = {
+        "querydsl.memory-tier.enabled=true",
+        "querydsl.predicate-guard.enabled=true",
+        "querydsl.predicate-guard.mode=enforce",
+        "querydsl.predicate-guard.allow-rows=50",
+        "querydsl.predicate-guard.reject-rows=200",
+        "querydsl.predicate-guard.max-rows=10"})
+class PredicateGuardMemoryTierTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+    @Autowired InMemoryMemberStore store;
+    @Autowired TableStatistics tableStatistics;
+    @Autowired MeterRegistry registry;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            for (int i = 0; i < 300; i++) {
+                em.persist(new Member("member" + i, i % 100, team));
+            }
+        });
+        store.rebuild();
+        tableStatistics.refresh();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void memoryAnswersSkipTheGuard() {
+        double before = decisions();
+
+        assertThat(memberRepository.count(member.username.contains("ember"))).isEqualTo(300);
+        assertThat(memberRepository.exists(member.username.contains("ember"))).isTrue();
+        assertThat(memberRepository.findAll(member.age.goe(80))).hasSize(60); // 제한 실행(10건) 아님
+        assertThat(decisions()).isEqualTo(before);
+    }
+
+    @Test
+    public void databaseFallbackIsGuarded() {
+        // 쓰기 트랜잭션 안에서는 메모리 계층을 쓰지 않으므로 DB로 가고 가드가 거부한다
+        assertThatThrownBy(() -> tx.executeWithoutResult(status ->
+                memberRepository.count(member.username.contains("ember"))))
+                .isInstanceOf(ExpensivePredicateException.class);
+    }
+
+    private double decisions() {
+        return registry.find("querydsl.predicate.guard").counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.example.querydsl.guard;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 회원 300명 (나이 0 ~ 99 각 3명) / 팀 10개, 허용 50로우, 거부 200로우, 제한 실행 10로우
+ */
+@SpringBootTest(properties = {
+        "querydsl.predicate-guard.enabled=true",
+        "querydsl.predicate-guard.mode=enforce",
+        "querydsl.predicate-guard.allow-rows=50",
+        "querydsl.predicate-guard.reject-rows=200",
+        "querydsl.predicate-guard.max-rows=10"})
+class PredicateGuardTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PredicateCostEstimator estimator;
+    @Autowired TableStatistics tableStatistics;
+    @Autowired MeterRegistry registry;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            for (int i = 0; i < 300; i++) {
+                em.persist(new Member("member" + i, i % 100, teams.get(i % 10)));
+            }
+        });
+        tableStatistics.refresh();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void estimateFromIndexesAndStatistics() {
+        PredicateCost byName = estimator.estimate(Member.class, member.username.eq("member1"), List.of());
+        PredicateCost byTeam = estimator.estimate(Member.class, member.team.name.eq("team1"), List.of("age"));
+        PredicateCost contains = estimator.estimate(Member.class, member.username.contains("ember"), List.of("team.name"));
+
+        assertThat(byName.getAccessPath()).isEqualTo("idx_member_username");
+        assertThat(byName.getEstimatedRows()).isEqualTo(1);
+        // 팀 이름 인덱스 -> (team_id, age) 인덱스, 나이 정렬은 인덱스 순서
+        assertThat(byTeam.getAccessPath()).isEqualTo("idx_member_team_age");
+        assertThat(byTeam.getEstimatedRows()).isEqualTo(30);
+        assertThat(byTeam.isSortIndexed()).isTrue();
+        assertThat(contains.isFullScan()).isTrue();
+        assertThat(contains.getEstimatedRows()).isEqualTo(300);
+        assertThat(contains.isSortIndexed()).isFalse();
+        assertThat(contains.getReasons()).hasSize(3);
+    }
+
+    @Test
+    public void allowCheapPredicate() {
+        double before = decisions("allow");
+
+        Iterable<Member> result = memberRepository.findAll(member.username.eq("member1"));
+
+        assertThat(result).extracting("username").containsExactly("member1");
+        assertThat(decisions("allow")).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void downgradeToLimitedList() {
+        double before = decisions("downgrade");
+
+        Iterable<Member> result = memberRepository.findAll(member.age.goe(80));
+        Iterable<Member> scan = memberRepository.findAll(member.username.contains("ember"), member.age.desc());
+
+        assertThat(result).hasSize(10).extracting("age").allMatch(age -> (int) age >= 80);
+        assertThat(scan).hasSize(10).extracting("age").allMatch(age -> (int) age >= 96);
+        assertThat(decisions("downgrade")).isEqualTo(before + 2);
+    }
+
+    @Test
+    public void downgradePageToCappedCount() {
+        Page<Member> page = memberRepository.findAll(member.age.goe(80), PageRequest.of(0, 5, Sort.by("age")));
+
+        assertThat(page.getContent()).extracting("age").containsExactly(80, 80, 80, 81, 81);
+        assertThat(page.getTotalElements()).isEqualTo(10); // 실제 60, max-rows까지만 센다
+    }
+
+    @Test
+    public void rejectUnboundedScan() {
+        double before = decisions("reject");
+
+        assertThatThrownBy(() -> memberRepository.count(member.username.contains("ember")))
+                .isInstanceOf(ExpensivePredicateException.class)
+                .hasMessageContaining("full scan of member");
+        // 인덱스 없는 정렬은 맞는 로우를 모두 읽어야 한다
+        assertThatThrownBy(() -> memberRepository.findAll(member.username.contains("ember"),
+                PageRequest.of(0, 5, Sort.by("team.name"))))
+                .isInstanceOf(ExpensivePredicateException.class);
+        // 인덱스 순서 정렬이면 페이지만큼 찾고 멈춘다
+        assertThat(memberRepository.findAll(member.username.contains("ember"),
+                PageRequest.of(0, 5, Sort.by("username"))).getContent()).hasSize(5);
+        assertThat(decisions("reject")).isEqualTo(before + 2);
+    }
+
+    @Test
+    public void countIsAllowedBelowRejectRows() {
+        assertThat(memberRepository.count(member.age.goe(80))).isEqualTo(60);
+    }
+
+    @Test
+    public void rewriteBeforeEstimate() {
+        double before = rewritten();
+
+        Iterable<Member> result = memberRepository.findAll(member.age.lt(80).not());
+
+        assertThat(result).hasSize(10).extracting("age").allMatch(age -> (int) age >= 80);
+        assertThat(rewritten()).isEqualTo(before + 1);
+    }
+
+    private double decisions(String decision) {
+        return registry.find("querydsl.predicate.guard").tag("decision", decision).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+    private double rewritten() {
+        return registry.find("querydsl.predicate.guard").tag("rewritten", "true").counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.querydsl.guard;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import org.junit.jupiter.api.Test;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PredicateRewriterTest {
+
+    @Test
+    public void pushNotIntoComparison() {
+        assertThat(PredicateRewriter.rewrite(member.age.lt(80).not()).toString())
+                .isEqualTo("member1.age >= 80");
+        assertThat(PredicateRewriter.rewrite(member.age.gt(10).and(member.username.isNull()).not()).toString())
+                .isEqualTo("member1.age <= 10 || member1.username is not null");
+        assertThat(PredicateRewriter.rewrite(member.username.in("a", "b").not()).toString())
+                .isEqualTo("member1.username not in [a, b]");
+    }
+
+    @Test
+    public void mergeEqualsIntoIn() {
+        Predicate predicate = member.username.eq("a").or(member.age.eq(3)).or(member.username.eq("b"));
+
+        assertThat(PredicateRewriter.rewrite(predicate).toString())
+                .isEqualTo("member1.username in [a, b] || member1.age = 3");
+    }
+
+    @Test
+    public void keepInstanceWhenNothingToRewrite() {
+        Predicate contains = member.username.contains("x");
+        Predicate between = member.age.between(1, 2).not();
+        BooleanBuilder builder = new BooleanBuilder(member.age.goe(10));
+
+        assertThat(PredicateRewriter.rewrite(contains)).isSameAs(contains);
+        assertThat(PredicateRewriter.rewrite(between)).isSameAs(between);
+        assertThat(PredicateRewriter.rewrite(builder)).isSameAs(builder);
+        assertThat(PredicateRewriter.rewrite(new BooleanBuilder(member.age.goe(10).not())).toString())
+                .isEqualTo("member1.age < 10");
+    }
+
+}
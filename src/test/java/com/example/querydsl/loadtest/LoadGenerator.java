@@ -0,0 +1,141 @@
+package com.example.querydsl.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP 부하 생성기
+ *
+ * - closed : concurrency개 스레드가 응답을 받자마자 다음 요청 (서버가 느려지면 요청도 줄어든다)
+ * - open : 초당 rate건을 예정된 시각에 보낸다. 지연 시간은 예정 시각부터 재므로
+ *          서버가 밀려 대기한 시간도 포함된다 (coordinated omission 보정). 동시 요청은 최대 concurrency개
+ */
+public class LoadGenerator {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final RequestMix mix;
+    private final LoadTestSettings settings;
+
+    public LoadGenerator(String baseUrl, RequestMix mix, LoadTestSettings settings) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.settings = settings;
+    }
+
+    public Result run(Duration duration) throws InterruptedException {
+        Result result = new Result();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(settings.getConcurrency());
+        try {
+            if (settings.getMode() == LoadTestSettings.Mode.CLOSED) {
+                for (int i = 0; i < settings.getConcurrency(); i++) {
+                    workers.execute(() -> {
+                        Random random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            send(mix.next(random), System.nanoTime(), result);
+                        }
+                    });
+                }
+            } else {
+                long interval = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+                for (long intended = start; intended < deadline; intended += interval) {
+                    LockSupport.parkNanos(intended - System.nanoTime());
+                    long scheduled = intended;
+                    RequestMix.Request request = mix.next(ThreadLocalRandom.current());
+                    workers.execute(() -> send(request, scheduled, result));
+                }
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES); // 남은 요청 완료 대기
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private void send(RequestMix.Request request, long startNanos, Result result) {
+        Endpoint endpoint = result.endpoint(request.endpoint);
+        try {
+            HttpResponse<Void> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + request.path))
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                endpoint.errors.increment();
+            }
+        } catch (IOException e) {
+            endpoint.errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        endpoint.latency.recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+    }
+
+    public static class Result {
+        private final Map<String, Endpoint> endpoints = new TreeMap<>();
+        private long elapsedNanos;
+
+        synchronized Endpoint endpoint(String name) {
+            return endpoints.computeIfAbsent(name, key -> new Endpoint());
+        }
+
+        public synchronized Map<String, Endpoint> getEndpoints() {
+            return new TreeMap<>(endpoints);
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public Endpoint total() {
+            Endpoint total = new Endpoint();
+            getEndpoints().values().forEach(endpoint -> {
+                total.latency.add(endpoint.latency);
+                total.errors.add(endpoint.errors.sum());
+            });
+            return total;
+        }
+    }
+
+    public static class Endpoint {
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3); // 마이크로초
+        final LongAdder errors = new LongAdder();
+
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+    }
+
+}
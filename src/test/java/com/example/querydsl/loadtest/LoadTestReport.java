@@ -0,0 +1,128 @@
+package com.example.querydsl.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 부하 테스트 결과 JSON 리포트 (build/reports/loadtest/{label}-{시각}.json)
+ *
+ * 엔드포인트별 요청 수, 오류 수, 처리량(req/s), 지연 시간 백분위(마이크로초)와
+ * 나중에 다시 합치거나 다른 백분위를 볼 수 있도록 압축한 HdrHistogram(base64)을 남긴다.
+ * loadtest.baseline으로 이전 리포트를 주면 p99, 처리량 변화를 함께 출력한다.
+ */
+public class LoadTestReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    public LoadTestReport(LoadTestSettings settings, LoadGenerator.Result result) {
+        double seconds = result.getElapsedNanos() / 1_000_000_000.0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        result.getEndpoints().forEach((name, endpoint) -> endpoints.put(name, summary(endpoint, seconds)));
+
+        report.put("label", settings.getLabel());
+        report.put("timestamp", Instant.now().toString());
+        report.put("settings", settings(settings));
+        report.put("elapsedSeconds", seconds);
+        report.put("total", summary(result.total(), seconds));
+        report.put("endpoints", endpoints);
+    }
+
+    public Path write(String directory, String label) throws IOException {
+        Path dir = Files.createDirectories(Path.of(directory));
+        Path file = dir.resolve(label + "-" + System.currentTimeMillis() + ".json");
+        MAPPER.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    // 이전 리포트 대비 변화 (엔드포인트별 p99, 처리량)
+    public String compare(Path baseline) throws IOException {
+        JsonNode previous = MAPPER.readTree(baseline.toFile());
+        JsonNode current = MAPPER.valueToTree(report);
+        StringBuilder out = new StringBuilder("compared with " + previous.path("label").asText() + "\n");
+        compareLine(out, "total", previous.path("total"), current.path("total"));
+        current.path("endpoints").fields().forEachRemaining(entry ->
+                compareLine(out, entry.getKey(), previous.path("endpoints").path(entry.getKey()), entry.getValue()));
+        return out.toString();
+    }
+
+    public String summaryLine() {
+        JsonNode total = MAPPER.valueToTree(report).path("total");
+        return String.format("requests=%d errors=%d throughput=%.1f req/s p50=%dus p99=%dus max=%dus",
+                total.path("requests").asLong(), total.path("errors").asLong(), total.path("throughput").asDouble(),
+                total.path("latencyMicros").path("p50").asLong(), total.path("latencyMicros").path("p99").asLong(),
+                total.path("latencyMicros").path("max").asLong());
+    }
+
+    private static void compareLine(StringBuilder out, String name, JsonNode previous, JsonNode current) {
+        if (previous.isMissingNode()) {
+            out.append(String.format("  %-6s (new)%n", name));
+            return;
+        }
+        out.append(String.format("  %-6s p99 %d -> %d us (%+.1f%%), throughput %.1f -> %.1f req/s (%+.1f%%)%n", name,
+                previous.path("latencyMicros").path("p99").asLong(), current.path("latencyMicros").path("p99").asLong(),
+                change(previous.path("latencyMicros").path("p99").asDouble(), current.path("latencyMicros").path("p99").asDouble()),
+                previous.path("throughput").asDouble(), current.path("throughput").asDouble(),
+                change(previous.path("throughput").asDouble(), current.path("throughput").asDouble())));
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+
+    private static Map<String, Object> summary(LoadGenerator.Endpoint endpoint, double seconds) {
+        Histogram latency = endpoint.getLatency();
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("mean", latency.getMean());
+        percentiles.put("p50", latency.getValueAtPercentile(50));
+        percentiles.put("p90", latency.getValueAtPercentile(90));
+        percentiles.put("p99", latency.getValueAtPercentile(99));
+        percentiles.put("p999", latency.getValueAtPercentile(99.9));
+        percentiles.put("max", latency.getMaxValue());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latency.getTotalCount());
+        summary.put("errors", endpoint.getErrors());
+        summary.put("throughput", latency.getTotalCount() / seconds);
+        summary.put("latencyMicros", percentiles);
+        summary.put("histogram", encode(latency));
+        return summary;
+    }
+
+    private static Map<String, Object> settings(LoadTestSettings settings) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("members", settings.getMembers());
+        values.put("teams", settings.getTeams());
+        values.put("teamSkew", settings.getTeamSkew());
+        values.put("mode", settings.getMode().name().toLowerCase());
+        values.put("concurrency", settings.getConcurrency());
+        values.put("rate", settings.getRate());
+        values.put("warmup", settings.getWarmup().toString());
+        values.put("duration", settings.getDuration().toString());
+        values.put("mix", settings.getMix());
+        values.put("maxPage", settings.getMaxPage());
+        values.put("pageSize", settings.getPageSize());
+        return values;
+    }
+
+    // Histogram.decodeFromCompressedByteBuffer로 복원
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+}
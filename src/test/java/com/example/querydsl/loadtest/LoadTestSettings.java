@@ -0,0 +1,56 @@
+package com.example.querydsl.loadtest;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정 - 시스템 프로퍼티 loadtest.* (./gradlew loadTest -Dloadtest.concurrency=32)
+ *
+ * - members, teams, team-skew : 시드 데이터 크기, 팀 크기 쏠림 (DatasetSeeder)
+ * - mode : closed(동시 사용자 concurrency명이 응답을 받으면 바로 다음 요청), open(초당 rate건 고정 도착)
+ * - mix : 엔드포인트 가중치 ex) v1=1,v2=2,v3=2
+ * - max-page, page-size : 페이지 깊이 (얕은 페이지일수록 자주 요청)
+ */
+@Getter
+@ToString
+public class LoadTestSettings {
+
+    public enum Mode {CLOSED, OPEN}
+
+    private final int members = intProperty("members", 100_000);
+    private final int teams = intProperty("teams", 100);
+    private final double teamSkew = Double.parseDouble(property("team-skew", "1.0")); // 팀 크기 zipf 지수
+    private final Mode mode = Mode.valueOf(property("mode", "closed").toUpperCase());
+    private final int concurrency = intProperty("concurrency", 16);
+    private final int rate = intProperty("rate", 200); // open 모드 초당 요청 수
+    private final Duration warmup = Duration.parse("PT" + property("warmup", "10s"));
+    private final Duration duration = Duration.parse("PT" + property("duration", "30s"));
+    private final Map<String, Integer> mix = parseMix(property("mix", "v1=1,v2=2,v3=2"));
+    private final int maxPage = intProperty("max-page", 20);
+    private final int pageSize = intProperty("page-size", 20);
+    private final String label = property("label", "local"); // 릴리스 구분 (gradle 태스크는 프로젝트 버전)
+    private final String reportDir = property("report-dir", "build/reports/loadtest");
+    private final String baseline = property("baseline", ""); // 비교할 이전 리포트 경로
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(property(name, String.valueOf(defaultValue)));
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            weights.put(pair[0].trim(), pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1);
+        }
+        return weights;
+    }
+
+}
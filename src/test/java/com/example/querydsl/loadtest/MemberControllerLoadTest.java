@@ -0,0 +1,81 @@
+package com.example.querydsl.loadtest;
+
+import com.example.querydsl.seed.DatasetSeeder;
+import com.example.querydsl.seed.SeedOptions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MemberController(/v1 ~ /v3/members) 부하 테스트 - 설정은 LoadTestSettings 참고
+ * ./gradlew loadTest -Dloadtest.members=1000000 -Dloadtest.mode=open -Dloadtest.rate=300
+ *
+ * 워밍업 구간은 버리고 측정 구간만 리포트로 남긴다.
+ */
+@Tag("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.org.hibernate.SQL=warn",
+        "logging.level.org.hibernate.type=warn",
+        "spring.jpa.properties.hibernate.use_sql_comments=false",
+        "decorator.datasource.p6spy.enable-logging=false"})
+class MemberControllerLoadTest {
+
+    @LocalServerPort int port;
+    @Autowired DataSource dataSource;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    LoadTestSettings settings = new LoadTestSettings();
+
+    @BeforeAll
+    public void seed() throws SQLException {
+        new DatasetSeeder(dataSource).seed(SeedOptions.of(settings.getTeams(), settings.getMembers())
+                .teamSkew(settings.getTeamSkew())
+                .ageNormal(35, 12)
+                .workers(4));
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchMembers() throws Exception {
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port, new RequestMix(settings), settings);
+        System.out.println("load test " + settings);
+
+        generator.run(settings.getWarmup());
+        LoadGenerator.Result result = generator.run(settings.getDuration());
+
+        LoadTestReport report = new LoadTestReport(settings, result);
+        Path file = report.write(settings.getReportDir(), settings.getLabel());
+        System.out.println(report.summaryLine());
+        System.out.println("report " + file.toAbsolutePath());
+        if (!settings.getBaseline().isEmpty()) {
+            System.out.print(report.compare(Path.of(settings.getBaseline())));
+        }
+
+        assertThat(result.total().getLatency().getTotalCount()).isPositive();
+        assertThat(result.total().getErrors()).isZero();
+    }
+
+}
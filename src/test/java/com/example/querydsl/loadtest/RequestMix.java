@@ -0,0 +1,60 @@
+package com.example.querydsl.loadtest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * 요청 생성 - 엔드포인트는 가중치대로, 조건은 시드 데이터(팀 이름 team0 ~, 나이 0 ~ 99) 범위에서 무작위
+ */
+public class RequestMix {
+
+    private static final List<String> PAGED = List.of("v2", "v3");
+
+    private final LoadTestSettings settings;
+    private final String[] endpoints; // 가중치만큼 반복
+
+    public RequestMix(LoadTestSettings settings) {
+        this.settings = settings;
+        this.endpoints = settings.getMix().entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(String[]::new);
+        if (endpoints.length == 0) {
+            throw new IllegalArgumentException("Empty request mix: " + settings.getMix());
+        }
+    }
+
+    public Request next(Random random) {
+        String endpoint = endpoints[random.nextInt(endpoints.length)];
+        StringJoiner query = new StringJoiner("&");
+        if (random.nextInt(2) == 0) {
+            query.add("teamName=team" + random.nextInt(settings.getTeams()));
+        }
+        if (random.nextInt(2) == 0) {
+            int ageGoe = random.nextInt(80);
+            query.add("ageGoe=" + ageGoe);
+            query.add("ageLoe=" + (ageGoe + random.nextInt(20)));
+        }
+        if (random.nextInt(10) == 0) {
+            query.add("userName=member" + random.nextInt(settings.getMembers()));
+        }
+        if (PAGED.contains(endpoint)) {
+            double u = random.nextDouble();
+            query.add("page=" + (int) (settings.getMaxPage() * u * u));
+            query.add("size=" + settings.getPageSize());
+        }
+        return new Request(endpoint, "/" + endpoint + "/members?" + query);
+    }
+
+    public static class Request {
+        final String endpoint;
+        final String path;
+
+        Request(String endpoint, String path) {
+            this.endpoint = endpoint;
+            this.path = path;
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.example.querydsl.memory;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.QMember;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
+import com.example.querydsl.repository.MemberRepository;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 조건을 메모리와 DB에서 실행해 결과 비교
+ * 커밋 후에 반영되므로 트랜잭션을 직접 나눠서 검증
+ */
+@SpringBootTest(properties = "querydsl.memory-tier.enabled=true")
+class InMemoryMemberStoreTest {
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired InMemoryMemberStore store;
+    @Autowired MemberRepository memberRepository;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 20; i++) {
+                Team team = i % 5 == 4 ? null : i % 2 == 0 ? teamA : teamB;
+                em.persist(new Member(i == 7 ? null : "member" + i, i * 5, team));
+            }
+        });
+        store.rebuild(); // 다른 테스트의 정리(벌크 삭제)는 스냅샷에 알려지지 않으므로
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void sameResultsAsDatabase() {
+        List<Predicate> predicates = List.of(
+                member.username.eq("member1"),
+                member.age.between(20, 40),
+                member.age.gt(30).and(member.team.name.eq("teamA")),
+                member.age.in(10, 40, 70),
+                member.username.startsWith("member1"),
+                member.username.contains("ber2"),
+                member.username.likeIgnoreCase("MEMBER1%"),
+                member.age.lt(20).or(member.age.goe(60)),
+                member.age.loe(50).not(),
+                member.team.isNull(),
+                member.team.name.ne("teamA"),
+                member.team.name.in("teamA", "teamB").and(member.age.loe(30)),
+                member.username.isNull(),
+                member.username.ne("member3").and(member.age.lt(25)));
+
+        assertThat(store.isReady()).isTrue();
+        for (Predicate predicate : predicates) {
+            List<Long> expected = tx.execute(status -> queryFactory
+                    .select(member.id)
+                    .from(member)
+                    .where(predicate)
+                    .orderBy(member.id.asc())
+                    .fetch());
+            assertThat(store.findIds(predicate, -1)).as(predicate.toString()).hasValue(expected);
+        }
+    }
+
+    @Test
+    public void sortAndPageLikeDatabase() {
+        List<OrderSpecifier<?>> orders = List.of(team.name.desc(), member.age.asc());
+        Predicate where = member.age.goe(10);
+
+        List<MemberTeamDto> expected = tx.execute(status -> queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where)
+                .orderBy(team.name.desc(), member.age.asc())
+                .offset(3)
+                .limit(5)
+                .fetch()).stream()
+                .map(row -> new MemberTeamDto(row.get(member.id), row.get(member.username),
+                        row.get(member.age), row.get(team.id), row.get(team.name)))
+                .collect(Collectors.toList());
+
+        assertThat(store.find(where, orders, 3, 5)).hasValue(expected);
+    }
+
+    @Test
+    public void followCommittedChanges() {
+        Long id = tx.execute(status -> {
+            Team teamA = queryFactory.selectFrom(team).where(team.name.eq("teamA")).fetchOne();
+            Member newMember = new Member("newbie", 99, teamA);
+            em.persist(newMember);
+            return newMember.getId();
+        });
+        assertThat(store.findIds(member.team.name.eq("teamA").and(member.age.eq(99)), -1)).hasValue(List.of(id));
+
+        tx.executeWithoutResult(status -> em.find(Member.class, id).setAge(98));
+        assertThat(store.count(member.age.eq(99), false)).hasValue(0);
+        assertThat(store.count(member.age.eq(98), false)).hasValue(1);
+
+        tx.executeWithoutResult(status -> queryFactory.selectFrom(team)
+                .where(team.name.eq("teamA")).fetchOne().setName("teamZ"));
+        assertThat(store.findIds(member.team.name.eq("teamZ").and(member.age.eq(98)), -1)).hasValue(List.of(id));
+        assertThat(store.count(team.name.eq("teamA"), false)).hasValue(0);
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, id)));
+        assertThat(store.count(member.age.eq(98), false)).hasValue(0);
+    }
+
+    @Test
+    public void unsupportedExpressionFallsBack() {
+        QMember sub = new QMember("sub");
+        assertThat(store.findIds(member.age.eq(JPAExpressions.select(sub.age.max()).from(sub)), -1)).isEmpty();
+        assertThat(store.count(member.age.add(1).eq(21), false)).isEmpty();
+
+        // 메모리에서 못 하는 조건은 DB에서
+        assertThat(memberRepository.findAll(member.age.eq(JPAExpressions.select(sub.age.max()).from(sub))))
+                .extracting("age").containsExactly(95);
+    }
+
+    @Test
+    public void writeTransactionUsesDatabase() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("uncommitted", 77));
+            assertThat(store.count(member.age.eq(77), false)).isEmpty();
+            assertThat(memberRepository.count(member.age.eq(77))).isEqualTo(1);
+        });
+    }
+
+    @Test
+    public void repositoryServedFromMemory() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(20);
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            List<MemberTeamDto> result = memberRepository.search(condition);
+            long count = memberRepository.count(member.age.between(20, 40));
+            boolean exists = memberRepository.exists(member.username.eq("member9"));
+            boolean notExists = memberRepository.exists(member.username.eq("nobody"));
+
+            assertThat(result).extracting("teamName").containsOnly("teamB");
+            assertThat(result).extracting("age").containsExactly(25, 35, 55, 65, 75, 85);
+            assertThat(count).isEqualTo(5);
+            assertThat(exists).isTrue();
+            assertThat(notExists).isFalse();
+            assertThat(scope.getStatementCount()).isZero();
+        }
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            Iterable<Member> members = memberRepository.findAll(member.team.name.eq("teamA").and(member.age.lt(30)));
+
+            assertThat(StreamSupport.stream(members.spliterator(), false).map(Member::getUsername))
+                    .containsExactly("member0", "member2");
+            // 메모리에서 찾은 id로 PK 조회 1번
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+}
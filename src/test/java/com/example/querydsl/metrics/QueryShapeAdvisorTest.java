@@ -0,0 +1,95 @@
+package com.example.querydsl.metrics;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class QueryShapeAdvisorTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired QueryShapeAdvisor queryShapeAdvisor;
+
+    @Test
+    public void detectFullScan() {
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i));
+        }
+        em.flush();
+        queryShapeAdvisor.reset();
+
+        // 컬럼에 연산을 하면 인덱스를 쓸 수 없다
+        memberRepository.findAll(member.age.add(1).eq(21));
+        memberRepository.findAll(member.age.add(1).eq(22));
+
+        List<QueryShapeReport> reports = queryShapeAdvisor.report();
+        assertThat(reports).hasSize(1);
+        assertThat(reports.get(0).getCount()).isEqualTo(2);
+        assertThat(reports.get(0).isFullScan()).isTrue();
+        assertThat(reports.get(0).getFullScanTables()).containsExactly("MEMBER");
+    }
+
+    @Test
+    public void explainWithoutBoundValues() {
+        em.persist(new Member("secretName", 10));
+        em.flush();
+        queryShapeAdvisor.reset();
+
+        memberRepository.findAll(member.username.lower().eq("secretname").and(member.age.eq(10)));
+
+        List<QueryShapeReport> reports = queryShapeAdvisor.report();
+        assertThat(reports).hasSize(1);
+        assertThat(reports.get(0).getPlan()).isNotBlank().doesNotContain("secretname").doesNotContain("EXPLAIN failed");
+        assertThat(reports.get(0).getSql()).doesNotContain("secretname");
+    }
+
+    @Test
+    public void countParametersOutsideLiterals() {
+        assertThat(QueryShapeAdvisor.parameterCount("select * from member where username = ? and team = 'a?b' and age > ?"))
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void fullScansInH2Plan() {
+        String plan = "SELECT \"MEMBER0_\".\"MEMBER_ID\" FROM \"PUBLIC\".\"MEMBER\" \"MEMBER0_\"\n"
+                + "    /* PUBLIC.MEMBER.tableScan */\n"
+                + "LEFT OUTER JOIN \"PUBLIC\".\"TEAM\" \"TEAM1_\"\n"
+                + "    /* PUBLIC.PRIMARY_KEY_2: TEAM_ID = MEMBER0_.TEAM_ID */";
+
+        List<String[]> scans = QueryShapeAdvisor.fullScans(plan);
+
+        assertThat(scans).hasSize(1);
+        assertThat(scans.get(0)).containsExactly("MEMBER", "MEMBER0_");
+    }
+
+    @Test
+    public void suggestEqualityThenRange() {
+        String sql = "/* select member1 from Member member1 */ select member0_.member_id as col_0_0_ "
+                + "from member member0_ left outer join team team1_ on member0_.team_id=team1_.team_id "
+                + "where member0_.age>=? and member0_.username=? and member0_.age<=? order by member0_.member_id asc";
+
+        assertThat(QueryShapeAdvisor.suggestIndex(sql, "MEMBER", "MEMBER0_"))
+                .isEqualTo("create index idx_member_username_age on member (username, age);");
+        assertThat(QueryShapeAdvisor.suggestIndex(sql, "TEAM", "TEAM1_")).isNull();
+    }
+
+    @Test
+    public void suggestOrderByWithoutRange() {
+        String sql = "select member0_.member_id from member member0_ where member0_.team_id=? order by member0_.age desc limit ?";
+
+        assertThat(QueryShapeAdvisor.suggestIndex(sql, "MEMBER", "member0_"))
+                .isEqualTo("create index idx_member_team_id_age on member (team_id, age);");
+    }
+
+}
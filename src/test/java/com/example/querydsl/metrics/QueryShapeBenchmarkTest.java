@@ -0,0 +1,101 @@
+package com.example.querydsl.metrics;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberJpaRepository;
+import com.example.querydsl.repository.MemberRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 조건 모양별 실행 계획 확인 (H2, 기본 100만 건)
+ * ./gradlew benchmark --tests '*QueryShapeBenchmarkTest' -Dbenchmark.rows=1000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "decorator.datasource.p6spy.enable-logging=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryShapeBenchmarkTest {
+
+    private static final int TEAM_COUNT = 1000;
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired QueryShapeAdvisor queryShapeAdvisor;
+
+    @BeforeAll
+    public void seed() {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < TEAM_COUNT; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            memberJpaRepository.saveAll(() -> IntStream.range(0, rows)
+                    .mapToObj(i -> {
+                        Member member = new Member("member" + i, i % 100);
+                        member.setTeam(teams.get(i % TEAM_COUNT));
+                        return member;
+                    })
+                    .iterator());
+        });
+        // 통계 갱신 (H2 옵티마이저의 선택도 계산용)
+        tx.executeWithoutResult(status -> em.createNativeQuery("analyze").executeUpdate());
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchShapesUseIndexes() {
+        queryShapeAdvisor.reset();
+
+        for (int i = 0; i < 10; i++) {
+            memberRepository.search(condition("member" + i, null, null, null));
+            memberRepository.search(condition(null, null, 20 + i, 20 + i));
+            memberRepository.search(condition(null, "team" + i, 30, 35));
+        }
+
+        List<QueryShapeReport> reports = queryShapeAdvisor.report();
+        reports.forEach(report -> System.out.printf("count=%d avg=%.2fms max=%.2fms fullScan=%s suggest=%s%n%s%n%s%n%n",
+                report.getCount(), report.getAvgMillis(), report.getMaxMillis(),
+                report.getFullScanTables(), report.getSuggestedIndexes(), report.getSql(), report.getPlan()));
+
+        assertThat(reports).hasSize(3);
+        assertThat(reports).noneMatch(report -> report.getFullScanTables().contains("MEMBER"));
+    }
+
+    private MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+
+}
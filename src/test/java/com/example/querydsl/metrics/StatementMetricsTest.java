@@ -0,0 +1,73 @@
+package com.example.querydsl.metrics;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberJpaRepository;
+import com.example.querydsl.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class StatementMetricsTest {
+
+    @Autowired EntityManager em;
+    @Autowired MeterRegistry registry;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void countStatementsInScope() {
+        Member member = new Member("member1", 10);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        try (StatementScope scope = StatementScope.open(true)) {
+            // 같은 SQL 3번
+            for (int i = 0; i < 3; i++) {
+                memberJpaRepository.findById(member.getId());
+                em.clear();
+            }
+
+            Map<String, Integer> repeated = scope.getRepeatedStatements(3);
+            assertThat(scope.getStatementCount()).isEqualTo(3);
+            assertThat(repeated).hasSize(1);
+            assertThat(repeated.values()).containsExactly(3);
+        }
+    }
+
+    @Test
+    public void repositoryMetrics() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        memberRepository.search(condition);
+
+        assertThat(registry.get("repository.invocations")
+                .tag("repository", "MemberRepository")
+                .tag("method", "search")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(registry.get("repository.rows")
+                .tag("repository", "MemberRepository")
+                .tag("method", "search")
+                .summary().max()).isEqualTo(2);
+        // 리포지토리가 쓰는 지원 컴포넌트(CountCache 등)는 리포지토리로 기록하지 않는다
+        assertThat(registry.find("repository.invocations").tag("repository", "CountCache").timers()).isEmpty();
+        assertThat(registry.find("repository.invocations").tag("repository", "TableVersions").timers()).isEmpty();
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.example.querydsl.repository;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 회원 대량 저장 성능 비교 - 로우 단위 persist vs saveAll(JDBC 배치)
+ * ./gradlew benchmark -Dbenchmark.rows=100000,1000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=warn",
+        "logging.level.org.hibernate.type=warn",
+        "spring.jpa.properties.hibernate.use_sql_comments=false",
+        "decorator.datasource.p6spy.enable-logging=false"})
+class MemberBulkInsertBenchmarkTest {
+
+    private static final int TEAM_COUNT = 100;
+
+    @Autowired EntityManager em;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    static List<Integer> rows() {
+        String rows = System.getProperty("benchmark.rows", "100000,1000000");
+        return Arrays.stream(rows.split(",")).map(String::trim).map(Integer::valueOf).toList();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    // 기존 방식 - 한 트랜잭션에서 로우마다 persist, JDBC 배치 없음
+    @ParameterizedTest
+    @MethodSource("rows")
+    public void perRowPersist(int rows) {
+        long start = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.unwrap(Session.class).setJdbcBatchSize(1);
+            List<Team> teams = saveTeams();
+            for (int i = 0; i < rows; i++) {
+                memberJpaRepository.save(newMember(i, teams));
+            }
+        });
+        report("perRowPersist", rows, System.nanoTime() - start);
+    }
+
+    @ParameterizedTest
+    @MethodSource("rows")
+    public void batchedSaveAll(int rows) {
+        long start = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Team> teams = saveTeams();
+            memberJpaRepository.saveAll(() -> IntStream.range(0, rows)
+                    .mapToObj(i -> newMember(i, teams))
+                    .iterator());
+        });
+        report("batchedSaveAll", rows, System.nanoTime() - start);
+    }
+
+    private List<Team> saveTeams() {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        return teams;
+    }
+
+    // changeTeam()은 team.members에 회원을 계속 쌓으므로 측정에서는 연관관계만 설정
+    private Member newMember(int i, List<Team> teams) {
+        Member member = new Member("member" + i, i % 100);
+        member.setTeam(teams.get(i % teams.size()));
+        return member;
+    }
+
+    private void report(String name, int rows, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%s rows=%d elapsed=%.2fs throughput=%.0f rows/sec%n",
+                name, rows, seconds, rows / seconds);
+    }
+
+}
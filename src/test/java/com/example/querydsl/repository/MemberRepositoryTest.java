@@ -4,18 +4,24 @@ import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.example.querydsl.entity.QMember.member;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -74,6 +80,37 @@ class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
+    @Test
+    public void searchShapesTest() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition empty = new MemberSearchCondition();
+        empty.setUserName("");
+        MemberSearchCondition byName = new MemberSearchCondition();
+        byName.setUserName("member2");
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(20);
+        byAge.setAgeLoe(30);
+        MemberSearchCondition byOtherAge = new MemberSearchCondition();
+        byOtherAge.setAgeGoe(40);
+        byOtherAge.setAgeLoe(40);
+
+        // when, then - 같은 모양의 조건은 값만 바꿔서 재사용
+        assertThat(memberRepository.search(empty)).hasSize(4);
+        assertThat(memberRepository.search(byName)).extracting("username").containsExactly("member2");
+        assertThat(memberRepository.search(byAge)).extracting("username").containsExactly("member2", "member3");
+        assertThat(memberRepository.search(byOtherAge)).extracting("username").containsExactly("member4");
+    }
+
     @Test
     public void searchTestSimple() {
         // given
@@ -104,6 +141,134 @@ class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void searchSliceTest() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, null, 3);
+        Long cursor = first.getContent().get(first.getNumberOfElements() - 1).getMemberId();
+        Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, cursor, 3);
+
+        // then
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+    }
+
+    @Test
+    public void searchSliceByPageTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+        em.clear();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2));
+            Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, PageRequest.of(1, 2));
+
+            assertThat(first.getContent()).extracting("username").containsExactly("member2", "member3");
+            assertThat(first.hasNext()).isTrue();
+            assertThat(second.getContent()).extracting("username").containsExactly("member4", "member5");
+            assertThat(second.hasNext()).isFalse();
+            assertThat(second.getNumber()).isEqualTo(1);
+            // 페이지마다 컨텐츠 쿼리 하나, 카운트 쿼리 없음
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void searchSliceByPageSortedTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        // 나이가 같은 회원 - member_id 순서로 고정
+        em.persist(new Member("member1", 20, teamA));
+        em.persist(new Member("member2", 30, teamB));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 30, teamA));
+        em.flush();
+        em.clear();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age")));
+        Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "age")));
+        Slice<MemberTeamDto> byTeam = memberRepository.searchSlice(condition, PageRequest.of(0, 4, Sort.by("teamName", "age")));
+
+        assertThat(first.getContent()).extracting("username").containsExactly("member2", "member4", "member1");
+        assertThat(second.getContent()).extracting("username").containsExactly("member3");
+        assertThat(byTeam.getContent()).extracting("username").containsExactly("member1", "member4", "member3", "member2");
+        assertThatThrownBy(() -> memberRepository.searchSlice(condition, PageRequest.of(0, 3, Sort.by("password"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void searchSliceWithoutPageLimitTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 사이즈 + 1이 int 범위를 넘는 경우, getPageSize()가 없는 unpaged
+        Slice<MemberTeamDto> max = memberRepository.searchSlice(condition, PageRequest.of(0, Integer.MAX_VALUE));
+        Slice<MemberTeamDto> unpaged = memberRepository.searchSlice(condition, Pageable.unpaged());
+
+        assertThat(max.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(max.hasNext()).isFalse();
+        assertThat(unpaged.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(unpaged.hasNext()).isFalse();
+    }
+
+    @Test
+    public void streamSearchTest() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        // when
+        List<MemberTeamDto> result = new ArrayList<>();
+        long count = memberRepository.streamSearch(condition, result::add);
+
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(result).extracting("username").containsExactly("member3", "member4");
+    }
+
     @Test
     public void querydslPredicateExecutorTest() {
         // given
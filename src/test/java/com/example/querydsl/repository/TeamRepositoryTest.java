@@ -0,0 +1,90 @@
+package com.example.querydsl.repository;
+
+import com.example.querydsl.entity.Team;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 커밋 시점에 반영되므로 트랜잭션을 직접 나눠서 검증
+ */
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired TeamRepository teamRepository;
+
+    TransactionTemplate tx;
+    Statistics statistics;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void teamFromSecondLevelCache() {
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            return team.getId();
+        });
+        statistics.clear();
+
+        Team found = tx.execute(status -> em.find(Team.class, teamId));
+
+        assertThat(found.getName()).isEqualTo("teamA");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void findByNameFromQueryCache() {
+        tx.executeWithoutResult(status -> em.persist(new Team("teamA")));
+        statistics.clear();
+
+        tx.execute(status -> teamRepository.findByName("teamA"));
+        Team found = tx.execute(status -> teamRepository.findByName("teamA")).orElseThrow();
+
+        assertThat(found.getName()).isEqualTo("teamA");
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateQueryCacheOnChange() {
+        tx.executeWithoutResult(status -> em.persist(new Team("teamA")));
+        tx.execute(status -> teamRepository.findByName("teamB"));
+
+        tx.executeWithoutResult(status -> em.persist(new Team("teamB")));
+        statistics.clear();
+
+        // team 테이블이 바뀌었으므로 캐시된 "결과 없음"을 쓰지 않는다
+        assertThat(tx.execute(status -> teamRepository.findByName("teamB"))).isPresent();
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+}
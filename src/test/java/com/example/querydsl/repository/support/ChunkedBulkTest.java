@@ -0,0 +1,96 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.entity.Member;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * 청크마다 커밋되므로 테스트 트랜잭션 없이 실행하고 직접 정리
+ */
+@SpringBootTest
+class ChunkedBulkTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < 100; i++) {
+                em.persist(new Member("member" + i, i));
+            }
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+    }
+
+    @Test
+    public void updateInChunks() {
+        List<BulkProgress> progress = new ArrayList<>();
+
+        long count = memberTestRepository.chunkedAgePlus(50, ChunkOptions.of(10).onProgress(progress::add));
+
+        assertThat(count).isEqualTo(50);
+        assertThat(progress).hasSize(10);
+        assertThat(progress.get(progress.size() - 1).isLast()).isTrue();
+        assertThat(progress.get(progress.size() - 1).getTotalAffected()).isEqualTo(50);
+        assertThat(sumOfAges()).isEqualTo(4950 + 50);
+    }
+
+    @Test
+    public void deleteInChunks() {
+        long count = memberTestRepository.chunkedDeleteByAgeGt(89, ChunkOptions.of(30));
+
+        assertThat(count).isEqualTo(10);
+        assertThat(memberCount()).isEqualTo(90);
+    }
+
+    @Test
+    public void resumeAfterFailure() {
+        // 3번째 청크 커밋 후 중단
+        ChunkedBulkException e = catchThrowableOfType(
+                () -> memberTestRepository.chunkedAgePlus(0, ChunkOptions.of(10).onProgress(p -> {
+                    if (p.getChunk() == 3) {
+                        throw new IllegalStateException("stop");
+                    }
+                })),
+                ChunkedBulkException.class);
+
+        assertThat(e.getTotalAffected()).isEqualTo(30);
+
+        long resumed = memberTestRepository.chunkedAgePlus(0,
+                ChunkOptions.of(10).resumeAfter(e.getLastCommittedId()));
+
+        // 모든 회원이 정확히 한번씩 +1
+        assertThat(resumed).isEqualTo(70);
+        assertThat(sumOfAges()).isEqualTo(4950 + 100);
+    }
+
+    private long sumOfAges() {
+        return tx.execute(status -> em.createQuery("select sum(m.age) from Member m", Long.class).getSingleResult());
+    }
+
+    private long memberCount() {
+        return tx.execute(status -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    }
+
+}
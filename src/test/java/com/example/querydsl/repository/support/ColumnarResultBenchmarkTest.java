@@ -0,0 +1,88 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberJpaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 조회 결과가 차지하는 힙 비교 - MemberTeamDto 목록 vs ColumnarResult
+ * ./gradlew benchmark --tests '*ColumnarResultBenchmarkTest' -Dbenchmark.rows=2000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "decorator.datasource.p6spy.enable-logging=false")
+class ColumnarResultBenchmarkTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void retainedHeap() {
+        int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            memberJpaRepository.saveAll(() -> IntStream.range(0, rows)
+                    .mapToObj(i -> {
+                        Member member = new Member("member" + i, i % 100);
+                        member.setTeam(teams.get(i % 100));
+                        return member;
+                    })
+                    .iterator());
+        });
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        long base = usedHeap();
+        List<MemberTeamDto> dtos = tx.execute(status -> memberJpaRepository.search(condition));
+        long dtoHeap = usedHeap() - base;
+        report("MemberTeamDto", dtos.size(), dtoHeap);
+        dtos = null;
+
+        base = usedHeap();
+        ColumnarResult columns = memberTestRepository.searchColumnar(condition);
+        long columnarHeap = usedHeap() - base;
+        report("ColumnarResult", columns.size(), columnarHeap);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String name, int rows, long bytes) {
+        System.out.printf("%s rows=%d retained=%.1fMB (%.1f bytes/row)%n",
+                name, rows, bytes / 1024.0 / 1024.0, (double) bytes / rows);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class ColumnarResultTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+    }
+
+    @Test
+    public void fetchColumns() {
+        ColumnarResult result = memberTestRepository.searchColumnar(new MemberSearchCondition());
+
+        assertThat(result.size()).isEqualTo(5);
+        assertThat(result.strings(team.name).dictionary()).containsExactlyInAnyOrder("teamA", "teamB");
+
+        List<String> rows = new ArrayList<>();
+        result.forEach(row -> rows.add(row.getInt(member.age) + ":" + row.getString(team.name)));
+        assertThat(rows).containsExactlyInAnyOrder("10:teamA", "20:teamA", "30:teamB", "40:teamB", "50:null");
+    }
+
+    @Test
+    public void summarizeByTeam() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(40);
+
+        Map<String, IntSummaryStatistics> stats = memberTestRepository.searchColumnar(condition)
+                .summarizeBy(team.name, member.age);
+
+        // QuerydslBasicTest.group 과 같은 결과
+        assertThat(stats).containsOnlyKeys("teamA", "teamB");
+        assertThat(stats.get("teamA").getAverage()).isEqualTo(15);
+        assertThat(stats.get("teamB").getAverage()).isEqualTo(35);
+        assertThat(stats.get("teamB").getMax()).isEqualTo(40);
+        assertThat(stats.get("teamB").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void rowValidatesColumns() {
+        ColumnarResult result = new ColumnarResult(List.of(member.id, member.age, team.name));
+        result.add(new Object[]{1L, null, "teamA"});
+        result.add(new Object[]{2L, 20, null});
+
+        List<String> rows = new ArrayList<>();
+        result.forEach(row -> rows.add(row.getLong(member.id) + ":"
+                + (row.isNull(member.age) ? "null" : row.getInt(member.age)) + ":" + row.getString(team.name)));
+        assertThat(rows).containsExactly("1:null:teamA", "2:20:null");
+
+        assertThatThrownBy(() -> result.forEach(row -> row.isNull(member.username)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Not a column");
+        // 같은 로우에서 먼저 찾은 컬럼이어도 다른 타입으로 읽으면 거부
+        assertThatThrownBy(() -> result.forEach(row -> {
+            row.getInt(member.age);
+            row.getLong(member.age);
+        })).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("IntColumn");
+    }
+
+    @Test
+    public void growAndKeepNulls() {
+        ColumnarResult result = new ColumnarResult(List.of(member.id, member.age, team.name));
+        for (int i = 0; i < 3000; i++) {
+            result.add(new Object[]{(long) i, i % 2 == 0 ? null : i, i % 3 == 0 ? null : "team" + (i % 3)});
+        }
+
+        assertThat(result.size()).isEqualTo(3000);
+        assertThat(result.longs(member.id).get(2999)).isEqualTo(2999L);
+        assertThat(result.ints(member.age).isNull(2000)).isTrue();
+        assertThat(result.ints(member.age).get(2001)).isEqualTo(2001);
+        assertThat(result.strings(team.name).get(2001)).isNull();
+        assertThat(result.strings(team.name).dictionary()).hasSize(2);
+    }
+
+}
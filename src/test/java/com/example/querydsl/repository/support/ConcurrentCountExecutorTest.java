@@ -0,0 +1,136 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
+import com.example.querydsl.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 별도 커넥션에서 카운트를 실행하므로 데이터는 커밋해 두고 테스트 후 지운다
+ */
+@SpringBootTest(properties = "querydsl.concurrent-count.enabled=true")
+class ConcurrentCountExecutorTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+    @Autowired CountCache countCache;
+    @Autowired MeterRegistry registry;
+    @Autowired @Qualifier("countQueryExecutor") Executor countQueryExecutor;
+    @Autowired TaskExecutor applicationTaskExecutor;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 30; i++) {
+                em.persist(new Member("member" + i, i, teamA));
+            }
+        });
+        countCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void countConcurrently() {
+        double before = executions("concurrent");
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(teamA(), PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).hasSize(10);
+        assertThat(result.getTotalElements()).isEqualTo(30);
+        assertThat(executions("concurrent") - before).isEqualTo(1);
+    }
+
+    @Test
+    public void countRecordedInCallerScope() {
+        try (StatementScope scope = StatementScope.open(false)) {
+            Page<MemberTeamDto> result = memberRepository.searchPageComplex(teamA(), PageRequest.of(0, 10));
+
+            assertThat(result.getTotalElements()).isEqualTo(30);
+            // 컨텐츠 + 작업 스레드의 카운트
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void countQueryExecutorBean() {
+        // JDK 21 이상이면 가상 스레드, 아니면 max-concurrency 크기의 스레드 풀
+        if (Runtime.version().feature() >= 21) {
+            assertThat(countQueryExecutor).isNotInstanceOf(ThreadPoolTaskExecutor.class);
+        } else {
+            assertThat(countQueryExecutor).isInstanceOf(ThreadPoolTaskExecutor.class);
+            assertThat(((ThreadPoolTaskExecutor) countQueryExecutor).getMaxPoolSize()).isEqualTo(8);
+        }
+        // 스프링 부트 기본 실행기(MVC 비동기)는 그대로
+        assertThat(applicationTaskExecutor).isNotSameAs(countQueryExecutor);
+    }
+
+    @Test
+    public void sequentialWhenCountCached() {
+        memberRepository.searchPageComplex(teamA(), PageRequest.of(0, 10));
+        double before = executions("sequential");
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(teamA(), PageRequest.of(1, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(30);
+        assertThat(executions("sequential") - before).isEqualTo(1);
+    }
+
+    @Test
+    public void sequentialInWriteTransaction() {
+        double before = executions("sequential");
+
+        Page<MemberTeamDto> result = tx.execute(status -> {
+            Team teamA = em.createQuery("select t from Team t where t.name = 'teamA'", Team.class).getSingleResult();
+            em.persist(new Member("member30", 30, teamA));
+            return memberRepository.searchPageComplex(teamA(), PageRequest.of(0, 10));
+        });
+
+        // 커밋 전 회원도 카운트에 포함
+        assertThat(result.getTotalElements()).isEqualTo(31);
+        assertThat(executions("sequential") - before).isEqualTo(1);
+    }
+
+    private MemberSearchCondition teamA() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        return condition;
+    }
+
+    private double executions(String mode) {
+        return registry.get("querydsl.count.executions").tag("mode", mode).counter().count();
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.EntityChangedEvent;
+import com.example.querydsl.entity.Member;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+    @Test
+    public void hitAndMiss() {
+        CountCache countCache = new CountCache(Duration.ofMinutes(1), 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        MemberSearchCondition sameCondition = new MemberSearchCondition();
+        sameCondition.setTeamName("teamA");
+        sameCondition.setUserName(""); // 빈 문자열 == 조건 없음
+
+        long first = countCache.get(CountCache.key("search", condition.normalize()), () -> loads.incrementAndGet() * 10L);
+        long second = countCache.get(CountCache.key("search", sameCondition.normalize()), () -> loads.incrementAndGet() * 10L);
+
+        assertThat(first).isEqualTo(10);
+        assertThat(second).isEqualTo(10);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(countCache.getMissCount()).isEqualTo(1);
+        assertThat(countCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void expireAfterTtl() throws Exception {
+        CountCache countCache = new CountCache(Duration.ofMillis(10), 10);
+
+        countCache.get("key", () -> 1L);
+        Thread.sleep(30);
+        long count = countCache.get("key", () -> 2L);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(countCache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        CountCache countCache = new CountCache(Duration.ofMinutes(1), 2);
+
+        countCache.get("a", () -> 1L);
+        countCache.get("b", () -> 2L);
+        countCache.get("a", () -> 1L);
+        countCache.get("c", () -> 3L); // b 제거
+
+        assertThat(countCache.size()).isEqualTo(2);
+        assertThat(countCache.get("b", () -> 20L)).isEqualTo(20);
+    }
+
+    @Test
+    public void invalidateOnEntityChange() {
+        CountCache countCache = new CountCache(Duration.ofMinutes(1), 10);
+        countCache.get("key", () -> 1L);
+
+        countCache.onEntityChanged(new EntityChangedEvent(Member.class));
+
+        assertThat(countCache.size()).isZero();
+        assertThat(countCache.get("key", () -> 2L)).isEqualTo(2);
+    }
+
+}
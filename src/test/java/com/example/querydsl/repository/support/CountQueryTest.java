@@ -0,0 +1,147 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class CountQueryTest {
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired MemberTestRepository memberTestRepository;
+    @Autowired CountCache countCache;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+    }
+
+    @Test
+    public void emptyCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        String jpql = jpql(condition);
+
+        assertThat(jpql).startsWith("select count(member1.id)");
+        assertThat(jpql).doesNotContain("join", "where");
+        assertThat(count(condition)).isEqualTo(5);
+    }
+
+    @Test
+    public void memberConditionOnly() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member1");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(30);
+
+        String jpql = jpql(condition);
+
+        assertThat(jpql).startsWith("select count(member1.id)");
+        assertThat(jpql).doesNotContain("join");
+        assertThat(jpql).contains("member1.username = ?1", "member1.age >= ?2", "member1.age <= ?3");
+        assertThat(count(condition)).isEqualTo(1);
+    }
+
+    @Test
+    public void teamConditionOnly() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        String jpql = jpql(condition);
+
+        assertThat(jpql).contains("left join member1.team as team", "team.name = ?1");
+        assertThat(count(condition)).isEqualTo(2);
+    }
+
+    @Test
+    public void allConditions() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member3");
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+
+        String jpql = jpql(condition);
+
+        assertThat(jpql).contains("left join member1.team as team");
+        assertThat(count(condition)).isEqualTo(1);
+    }
+
+    @Test
+    public void pagingWithCountQuery() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<Member> result = memberTestRepository.applyPagination2(condition, PageRequest.of(0, 3));
+
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent()).hasSize(3);
+    }
+
+    @Test
+    public void existingPagingPathsUseCountQuery() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Page<Member> applyPage = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 1));
+        Page<Member> combined = memberTestRepository.applyPagination(condition, PageRequest.of(0, 1));
+
+        assertThat(applyPage.getTotalElements()).isEqualTo(2);
+        assertThat(combined.getTotalElements()).isEqualTo(2);
+        assertThat(combined.getContent()).hasSize(1);
+    }
+
+    @Test
+    public void existingPagingPathsCacheCount() {
+        // 쓰기 트랜잭션 안에서는 캐시를 쓰지 않으므로 트랜잭션 밖에서 (커밋된 회원 없음)
+        TransactionTemplate outside = new TransactionTemplate(transactionManager);
+        outside.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+        countCache.invalidateAll();
+
+        outside.executeWithoutResult(status ->
+                memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(1, 1)));
+        long misses = countCache.getMissCount();
+        outside.executeWithoutResult(status ->
+                memberTestRepository.applyPagination(condition, PageRequest.of(2, 1)));
+
+        assertThat(countCache.contains(CountCache.key("MemberTestRepository.search", condition.normalize()))).isTrue();
+        assertThat(countCache.getMissCount()).isEqualTo(misses);
+    }
+
+    private String jpql(MemberSearchCondition condition) {
+        return memberTestRepository.countQuery(condition).toQuery(queryFactory).toString();
+    }
+
+    private long count(MemberSearchCondition condition) {
+        return memberTestRepository.countQuery(condition).fetchCount(queryFactory);
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberDto;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class FastProjectionsTest {
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+
+    record MemberView(String username, int age, String teamName) {
+    }
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+    }
+
+    @Test
+    public void bean() {
+        List<MemberDto> result = queryFactory
+                .select(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).extracting("username", "age")
+                .containsExactly(
+                        tuple("member1", 10),
+                        tuple("member2", 20),
+                        tuple("member3", 30));
+    }
+
+    @Test
+    public void fieldsWithAlias() {
+        List<MemberTeamDto> result = queryFactory
+                .select(FastProjections.fields(MemberTeamDto.class,
+                        member.id.as("memberId"), member.username, member.age,
+                        team.id.as("teamId"), team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0).getMemberId()).isNotNull();
+        assertThat(result.get(0).getTeamName()).isEqualTo("teamA");
+        assertThat(result.get(2).getTeamId()).isNull();
+    }
+
+    @Test
+    public void constructor() {
+        List<MemberDto> result = queryFactory
+                .select(FastProjections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .where(member.username.eq("member2"))
+                .fetch();
+
+        assertThat(result).containsExactly(new MemberDto("member2", 20));
+    }
+
+    @Test
+    public void recordByComponentName() {
+        // bean 방식으로 넘겨도 레코드는 정식 생성자로, 순서는 이름으로 맞춘다
+        List<MemberView> result = queryFactory
+                .select(FastProjections.bean(MemberView.class,
+                        team.name.as("teamName"), member.age, member.username))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(
+                new MemberView("member1", 10, "teamA"),
+                new MemberView("member2", 20, "teamA"),
+                new MemberView("member3", 30, null));
+    }
+
+    @Test
+    public void cacheMapperPerShape() {
+        FastProjections.FastProjection<MemberDto> first = FastProjections.bean(MemberDto.class, member.username, member.age);
+        FastProjections.FastProjection<MemberDto> second = FastProjections.bean(MemberDto.class, member.username, member.age);
+
+        MemberDto dto = second.newInstance("member1", null); // 기본형에 null이면 기본값 유지
+
+        assertThat(first.mapper()).isSameAs(second.mapper());
+        assertThat(dto.getUsername()).isEqualTo("member1");
+        assertThat(dto.getAge()).isZero();
+    }
+
+}
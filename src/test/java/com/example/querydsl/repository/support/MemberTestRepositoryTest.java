@@ -0,0 +1,152 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 회원 1,000명 / 팀 100개 조회 시 실행되는 SQL 수
+ * - 지연 로딩 + default_batch_fetch_size(100) : 1 + 1
+ * - 엔티티 그래프 : 1
+ */
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    private static final int MEMBER_COUNT = 1000;
+    private static final int TEAM_COUNT = 100;
+
+    @Autowired EntityManager em;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            em.persist(new Member("member" + i, i % 100, teams.get(i % TEAM_COUNT)));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void lazyTeamWithBatchFetch() {
+        try (StatementScope scope = StatementScope.open(false)) {
+            List<Member> result = memberTestRepository.basicSelectFrom();
+            result.forEach(member -> member.getTeam().getName());
+
+            assertThat(result).hasSize(MEMBER_COUNT);
+            // 회원 1번 + 팀 in 절 1번
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void teamWithEntityGraph() {
+        try (StatementScope scope = StatementScope.open(false)) {
+            List<Member> result = memberTestRepository.basicSelectWithTeam();
+            result.forEach(member -> member.getTeam().getName());
+
+            assertThat(result).hasSize(MEMBER_COUNT);
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void pageWithEntityGraph() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(19);
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            Page<Member> result = memberTestRepository.searchPageWithTeam(condition, PageRequest.of(0, 20));
+            result.forEach(member -> member.getTeam().getName());
+
+            assertThat(result.getContent()).hasSize(20);
+            assertThat(result.getTotalElements()).isEqualTo(100);
+            // 컨텐츠 1번 + 카운트 1번, 팀 추가 조회 없음
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void sliceWithoutCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(19);
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            Slice<Member> first = memberTestRepository.searchSliceByPage(condition,
+                    PageRequest.of(0, 20, Sort.by(Sort.Order.desc("age"), Sort.Order.asc("id"))));
+            Slice<Member> last = memberTestRepository.searchSliceByPage(condition, PageRequest.of(4, 20));
+
+            assertThat(first.getContent()).hasSize(20);
+            assertThat(first.getContent()).extracting("age").containsOnly(19, 18);
+            assertThat(first.hasNext()).isTrue();
+            assertThat(last.getContent()).hasSize(20);
+            assertThat(last.hasNext()).isFalse();
+            // 페이지마다 컨텐츠 1번, 카운트 없음
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void keysetWithNullSortKey() {
+        em.persist(new Member("b", 200));
+        em.persist(new Member(null, 200));
+        em.persist(new Member("a", 200));
+        em.persist(new Member(null, 200));
+        em.persist(new Member("a", 200));
+        em.flush();
+        em.clear();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(200);
+
+        // 이전 페이지 마지막 로우의 (username, id)로 다음 페이지 - null은 마지막
+        List<String> usernames = new ArrayList<>();
+        Slice<Member> slice = memberTestRepository.searchSliceOrderByUsername(condition, null, null, 2);
+        slice.forEach(member -> usernames.add(member.getUsername()));
+        while (slice.hasNext()) {
+            Member last = slice.getContent().get(slice.getContent().size() - 1);
+            slice = memberTestRepository.searchSliceOrderByUsername(condition, last.getUsername(), last.getId(), 2);
+            slice.forEach(member -> usernames.add(member.getUsername()));
+        }
+
+        assertThat(usernames).containsExactly("a", "a", "b", null, null);
+    }
+
+    @Test
+    public void lazyMembersWithBatchFetch() {
+        try (StatementScope scope = StatementScope.open(false)) {
+            List<Team> teams = memberTestRepository.selectFrom(team).fetch();
+            int members = teams.stream().mapToInt(t -> t.getMembers().size()).sum();
+
+            assertThat(members).isEqualTo(MEMBER_COUNT);
+            // 팀 1번 + 회원 컬렉션 in 절 1번
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class QueryTemplateTest {
+
+    static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    public void bindParams() {
+        QueryTemplate<String> template = new QueryTemplate<>(queryFactory
+                .select(member.username)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq(TEAM_NAME), member.age.goe(AGE_GOE)));
+
+        List<String> teamB = template.fetch(em, Map.of(TEAM_NAME, "teamB", AGE_GOE, 35));
+        List<String> teamA = template.fetch(em, Map.of(TEAM_NAME, "teamA", AGE_GOE, 0));
+
+        assertThat(template.getJpql()).contains("team.name = ?1", "member1.age >= ?2");
+        assertThat(teamB).containsExactly("member4");
+        assertThat(teamA).containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void cacheByShape() {
+        QueryTemplateCache cache = new QueryTemplateCache();
+
+        QueryTemplate<Member> first = cache.get("byTeam", () -> queryFactory
+                .selectFrom(member)
+                .where(member.team.name.eq(TEAM_NAME)));
+        QueryTemplate<Member> second = cache.get("byTeam", () -> {
+            throw new AssertionError("template must be reused");
+        });
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void rejectConstants() {
+        assertThatThrownBy(() -> new QueryTemplate<>(queryFactory
+                .selectFrom(member)
+                .where(member.age.gt(10))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
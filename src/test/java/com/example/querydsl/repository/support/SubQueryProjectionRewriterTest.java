@@ -0,0 +1,155 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.dto.MemberDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.QMember;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * 바꾼 실행 결과가 원래 쿼리 결과와 같은지
+ */
+@SpringBootTest
+@Transactional
+class SubQueryProjectionRewriterTest {
+
+    static final QMember memberSub = new QMember("memberSub");
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC"); // 회원 없는 팀
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50)); // 팀 없음
+        em.flush();
+        em.clear();
+    }
+
+    // QuerydslBasicTest.subQueryInSelect
+    @Test
+    public void uncorrelatedAverage() {
+        JPQLQuery<Double> avgAge = JPAExpressions.select(memberSub.age.avg()).from(memberSub);
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.username, avgAge)
+                .from(member)
+                .orderBy(member.username.asc());
+
+        List<Tuple> result;
+        try (StatementScope scope = StatementScope.open(false)) {
+            result = SubQueryProjectionRewriter.fetch(em, query);
+            // 평균 1번 + 회원 1번
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+
+        assertThat(result).extracting(t -> t.get(member.username), t -> t.get(avgAge))
+                .containsExactly(
+                        tuple("member1", 30.0), tuple("member2", 30.0), tuple("member3", 30.0),
+                        tuple("member4", 30.0), tuple("member5", 30.0));
+        assertThat(result).isEqualTo(query.fetch());
+    }
+
+    @Test
+    public void correlatedByTeam() {
+        JPQLQuery<Double> teamAvg = JPAExpressions.select(memberSub.age.avg()).from(memberSub)
+                .where(memberSub.team.eq(member.team));
+        JPQLQuery<Long> teamCount = JPAExpressions.select(memberSub.count()).from(memberSub)
+                .where(memberSub.team.eq(member.team), memberSub.age.goe(20));
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.username, teamAvg, teamCount)
+                .from(member)
+                .orderBy(member.username.asc());
+
+        assertThat(SubQueryProjectionRewriter.isRewritable(em, query)).isTrue();
+        List<Tuple> result = SubQueryProjectionRewriter.fetch(em, query);
+
+        assertThat(result).extracting(t -> t.get(member.username), t -> t.get(teamAvg), t -> t.get(teamCount))
+                .containsExactly(
+                        tuple("member1", 15.0, 1L),
+                        tuple("member2", 15.0, 1L),
+                        tuple("member3", 35.0, 2L),
+                        tuple("member4", 35.0, 2L),
+                        tuple("member5", null, 0L)); // 맞는 그룹 없음 - avg는 null, count는 0
+        assertThat(result).isEqualTo(query.fetch());
+    }
+
+    @Test
+    public void correlatedWithJoinedRoot() {
+        JPQLQuery<Integer> maxAge = JPAExpressions.select(memberSub.age.max()).from(memberSub)
+                .where(memberSub.team.eq(team));
+        JPAQuery<Tuple> query = queryFactory
+                .select(team.name, maxAge)
+                .from(team)
+                .orderBy(team.name.asc());
+
+        List<Tuple> result = SubQueryProjectionRewriter.fetch(em, query);
+
+        assertThat(result).extracting(t -> t.get(team.name), t -> t.get(maxAge))
+                .containsExactly(tuple("teamA", 20), tuple("teamB", 40), tuple("teamC", null));
+        assertThat(result).isEqualTo(query.fetch());
+    }
+
+    @Test
+    public void keepDtoShape() {
+        JPAQuery<MemberDto> query = queryFactory
+                .select(Projections.fields(MemberDto.class,
+                        member.username,
+                        ExpressionUtils.as(JPAExpressions.select(memberSub.age.max()).from(memberSub), "age")))
+                .from(member)
+                .where(member.team.isNotNull())
+                .orderBy(member.username.desc());
+
+        List<MemberDto> result = SubQueryProjectionRewriter.fetch(em, query);
+
+        assertThat(result).extracting("username", "age").containsExactly(
+                tuple("member4", 50), tuple("member3", 50), tuple("member2", 50), tuple("member1", 50));
+        assertThat(result).isEqualTo(query.fetch());
+    }
+
+    @Test
+    public void fallBackToOriginalQuery() {
+        // = 비교가 아닌 상관 조건은 그대로 실행
+        JPQLQuery<Long> older = JPAExpressions.select(memberSub.count()).from(memberSub)
+                .where(memberSub.age.gt(member.age));
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.username, older)
+                .from(member)
+                .orderBy(member.username.asc());
+
+        assertThat(SubQueryProjectionRewriter.isRewritable(em, query)).isFalse();
+        assertThat(SubQueryProjectionRewriter.fetch(em, query))
+                .extracting(t -> t.get(older))
+                .containsExactly(4L, 3L, 2L, 1L, 0L);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.example.querydsl.repository.support;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableVersionsTest {
+
+    @Test
+    public void writtenTable() {
+        assertThat(TableVersions.writtenTable("/* insert com.example.querydsl.entity.Member */ insert into member (age, team_id, username, member_id) values (?, ?, ?, ?)"))
+                .isEqualTo("member");
+        assertThat(TableVersions.writtenTable("/* update Member m set m.age = m.age + 1 */ update member set age=age+1 where age>=?"))
+                .isEqualTo("member");
+        assertThat(TableVersions.writtenTable("delete from PUBLIC.TEAM where team_id=?")).isEqualTo("team");
+        assertThat(TableVersions.writtenTable("merge into \"team\" key(team_id) values (?, ?)")).isEqualTo("team");
+        assertThat(TableVersions.writtenTable("select member0_.member_id from member member0_")).isNull();
+        assertThat(TableVersions.writtenTable("/* select m from Member m */ select 1")).isNull();
+    }
+
+    @Test
+    public void etagChangesWithVersion() {
+        TableVersions versions = new TableVersions();
+        String before = versions.etag("key", Member.class, Team.class);
+
+        assertThat(versions.etag("key", Member.class, Team.class)).isEqualTo(before);
+        assertThat(versions.etag("other", Member.class, Team.class)).isNotEqualTo(before);
+
+        versions.changed("team");
+        assertThat(versions.version("team")).isEqualTo(1);
+        assertThat(versions.etag("key", Member.class, Team.class)).isNotEqualTo(before);
+        assertThat(TableVersions.tableName(Member.class)).isEqualTo("member");
+    }
+
+}
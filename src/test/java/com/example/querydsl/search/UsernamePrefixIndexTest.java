@@ -0,0 +1,108 @@
+package com.example.querydsl.search;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.metrics.StatementScope;
+import com.example.querydsl.repository.support.MemberTestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋 후에 반영되므로 트랜잭션을 직접 나눠서 검증
+ */
+@SpringBootTest
+class UsernamePrefixIndexTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired UsernamePrefixIndex usernamePrefixIndex;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("kim", 10));
+            em.persist(new Member("kim", 20));
+            em.persist(new Member("kimchi", 30));
+            em.persist(new Member("kang", 40));
+            em.persist(new Member("lee", 50));
+        });
+        usernamePrefixIndex.rebuild(); // 다른 테스트의 정리(벌크 삭제)는 인덱스에 알려지지 않으므로
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+    }
+
+    @Test
+    public void completeFromIndex() {
+        assertThat(usernamePrefixIndex.isReady()).isTrue();
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            assertThat(usernamePrefixIndex.complete("ki", 10)).containsExactly("kim", "kimchi");
+            assertThat(usernamePrefixIndex.complete("k", 2)).containsExactly("kang", "kim");
+            assertThat(usernamePrefixIndex.complete("park", 10)).isEmpty();
+            assertThat(scope.getStatementCount()).isZero();
+        }
+    }
+
+    @Test
+    public void followCommittedChanges() {
+        Long id = tx.execute(status -> {
+            Member member = new Member("kimbap", 60);
+            em.persist(member);
+            return member.getId();
+        });
+        assertThat(usernamePrefixIndex.complete("kim", 10)).containsExactly("kim", "kimbap", "kimchi");
+
+        tx.executeWithoutResult(status -> em.find(Member.class, id).setUsername("lim"));
+        assertThat(usernamePrefixIndex.complete("kim", 10)).containsExactly("kim", "kimchi");
+        assertThat(usernamePrefixIndex.complete("l", 10)).containsExactly("lee", "lim");
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, id)));
+        assertThat(usernamePrefixIndex.complete("l", 10)).containsExactly("lee");
+    }
+
+    @Test
+    public void duplicateNamesRemainUntilLastIsRemoved() {
+        tx.executeWithoutResult(status -> em.remove(em.createQuery(
+                "select m from Member m where m.username = 'kim' and m.age = 10", Member.class).getSingleResult()));
+
+        assertThat(usernamePrefixIndex.complete("kim", 10)).containsExactly("kim", "kimchi");
+    }
+
+    @Test
+    public void rollbackIsIgnored() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("kimbap", 60));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(usernamePrefixIndex.complete("kim", 10)).containsExactly("kim", "kimchi");
+    }
+
+    @Test
+    public void sqlFallbackAfterBulkDelete() {
+        tx.executeWithoutResult(status -> memberTestRepository.bulkDeleteByAgeGt(25));
+
+        // 다시 만드는 중이면 SQL, 끝났으면 인덱스 - 결과는 같다
+        assertThat(usernamePrefixIndex.complete("k", 10)).containsExactly("kim");
+
+        usernamePrefixIndex.rebuild();
+        assertThat(usernamePrefixIndex.complete("k", 10)).containsExactly("kim");
+    }
+
+}
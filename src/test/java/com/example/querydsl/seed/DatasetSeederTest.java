@@ -0,0 +1,91 @@
+package com.example.querydsl.seed;
+
+import com.example.querydsl.entity.Member;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * JDBC로 커밋하므로 트랜잭션 없이 검증하고 직접 정리
+ */
+@SpringBootTest
+class DatasetSeederTest {
+
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void seedInParallel() throws Exception {
+        DatasetSeeder seeder = new DatasetSeeder(dataSource);
+        assertThat(seeder.isEmpty()).isTrue();
+
+        long rows = seeder.seed(SeedOptions.of(10, 10_000).workers(4).batchSize(500));
+
+        assertThat(rows).isEqualTo(10_010);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from team", Long.class)).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("select count(distinct username) from member", Long.class)).isEqualTo(10_000);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where team_id is null", Long.class)).isZero();
+        assertThat(seeder.isEmpty()).isFalse();
+    }
+
+    @Test
+    public void skewedDistributions() throws Exception {
+        new DatasetSeeder(dataSource).seed(SeedOptions.of(10, 10_000).teamSkew(1.0).ageNormal(30, 5));
+
+        List<Long> teamSizes = jdbcTemplate.queryForList(
+                "select count(*) from member m join team t on m.team_id = t.team_id group by t.team_id order by t.team_id",
+                Long.class);
+        // zipf(1.0), 팀 10개 - 첫 팀이 약 34%
+        assertThat(teamSizes.get(0)).isGreaterThan(teamSizes.get(teamSizes.size() - 1) * 5);
+        assertThat(teamSizes.get(0) / 10_000.0).isCloseTo(0.34, within(0.03));
+
+        Double avgAge = jdbcTemplate.queryForObject("select avg(cast(age as double)) from member", Double.class);
+        assertThat(avgAge).isCloseTo(30.0, within(0.5));
+        assertThat(jdbcTemplate.queryForObject("select min(age) from member", Integer.class)).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void persistAfterSeed() throws Exception {
+        new DatasetSeeder(dataSource).seed(SeedOptions.of(2, 100));
+        Long maxId = jdbcTemplate.queryForObject("select max(member_id) from member", Long.class);
+
+        Long id = new TransactionTemplate(transactionManager).execute(status -> {
+            Member member = new Member("member100", 10);
+            em.persist(member);
+            em.flush();
+            return member.getId();
+        });
+
+        assertThat(id).isGreaterThan(maxId);
+    }
+
+    @Test
+    public void zipfCdf() {
+        assertThat(DatasetSeeder.zipfCdf(4, 0)).containsExactly(0.25, 0.5, 0.75, 1.0);
+        double[] skewed = DatasetSeeder.zipfCdf(3, 1.0);
+        assertThat(skewed[0]).isCloseTo(6.0 / 11, within(1e-9));
+        assertThat(skewed[2]).isEqualTo(1.0);
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.example.querydsl.stats;
+
+import com.example.querydsl.dto.TeamStatsDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.StatementScope;
+import com.example.querydsl.repository.support.MemberTestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋 후에 반영되므로 트랜잭션을 직접 나눠서 검증
+ */
+@SpringBootTest
+class TeamAgeStatisticsTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired TeamAgeStatistics teamAgeStatistics;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+        teamAgeStatistics.reconcile();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void statsFromMemory() {
+        try (StatementScope scope = StatementScope.open(false)) {
+            TeamStatsDto teamA = stats(teamAId);
+
+            assertThat(teamA.getTeamName()).isEqualTo("teamA");
+            assertThat(teamA.getCount()).isEqualTo(2);
+            assertThat(teamA.getSum()).isEqualTo(30);
+            assertThat(teamA.getAvg()).isEqualTo(15.0);
+            assertThat(teamA.getMin()).isEqualTo(10);
+            assertThat(teamA.getMax()).isEqualTo(20);
+            assertThat(scope.getStatementCount()).isZero();
+        }
+    }
+
+    @Test
+    public void insertAfterCommit() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member4", 40, em.find(Team.class, teamAId)));
+            assertThat(stats(teamAId).getCount()).isEqualTo(2); // 커밋 전
+        });
+
+        TeamStatsDto teamA = stats(teamAId);
+        assertThat(teamA.getCount()).isEqualTo(3);
+        assertThat(teamA.getMax()).isEqualTo(40);
+    }
+
+    @Test
+    public void rollbackIsIgnored() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member4", 40, em.find(Team.class, teamAId)));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(stats(teamAId).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void updateAgeAndTeam() {
+        tx.executeWithoutResult(status -> {
+            Member member = em.createQuery("select m from Member m where m.username = 'member2'", Member.class)
+                    .getSingleResult();
+            member.setAge(50);
+            member.changeTeam(em.find(Team.class, teamBId));
+        });
+
+        TeamStatsDto teamA = stats(teamAId);
+        TeamStatsDto teamB = stats(teamBId);
+        assertThat(teamA.getCount()).isEqualTo(1);
+        assertThat(teamA.getMax()).isEqualTo(10);
+        assertThat(teamB.getCount()).isEqualTo(2);
+        assertThat(teamB.getSum()).isEqualTo(80);
+        assertThat(teamB.getMax()).isEqualTo(50);
+    }
+
+    @Test
+    public void mergeWithoutOldState() throws InterruptedException {
+        Member detached = tx.execute(status ->
+                em.createQuery("select m from Member m where m.username = 'member2'", Member.class).getSingleResult());
+        detached.setAge(60);
+        tx.executeWithoutResult(status -> em.merge(detached));
+
+        // 이전 나이를 모르므로 백그라운드에서 다시 집계
+        TeamStatsDto teamA = awaitStats(teamAId, stats -> stats.getSum() == 70);
+        assertThat(teamA.getSum()).isEqualTo(70);
+        assertThat(teamA.getMax()).isEqualTo(60);
+        assertThat(teamAgeStatistics.reconcile()).isZero();
+    }
+
+    @Test
+    public void changesDuringReloadAreKept() {
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 200; i++) {
+                int age = i;
+                tx.executeWithoutResult(status -> em.persist(new Member("writer" + age, age, em.find(Team.class, teamBId))));
+            }
+        });
+        while (!writer.isDone()) {
+            teamAgeStatistics.reconcile();
+        }
+        writer.join();
+
+        // 다시 읽는 동안 커밋된 변경도 반영되어 있어야 한다
+        assertThat(teamAgeStatistics.reconcile()).isZero();
+        assertThat(stats(teamBId).getCount()).isEqualTo(201);
+    }
+
+    @Test
+    public void deleteKeepsMinMax() {
+        tx.executeWithoutResult(status -> em.remove(
+                em.createQuery("select m from Member m where m.username = 'member1'", Member.class)
+                        .getSingleResult()));
+
+        TeamStatsDto teamA = stats(teamAId);
+        assertThat(teamA.getCount()).isEqualTo(1);
+        assertThat(teamA.getMin()).isEqualTo(20);
+        assertThat(teamA.getMax()).isEqualTo(20);
+    }
+
+    @Test
+    public void repositoryBulkUpdateReloadsInBackground() throws InterruptedException {
+        tx.executeWithoutResult(status -> memberTestRepository.bulkAgePlus(20));
+
+        TeamStatsDto teamA = awaitStats(teamAId, stats -> stats.getSum() == 31);
+        assertThat(teamA.getSum()).isEqualTo(31);
+        assertThat(teamA.getMax()).isEqualTo(21);
+        assertThat(teamAgeStatistics.reconcile()).isZero();
+    }
+
+    @Test
+    public void driftIsCorrected() {
+        tx.executeWithoutResult(status -> em.createQuery("update Member m set m.age = m.age + 1").executeUpdate());
+        // EntityManager로 직접 실행한 벌크 연산은 이벤트가 없으므로 정합성 검사에서 보정
+        assertThat(teamAgeStatistics.reconcile()).isEqualTo(2);
+
+        assertThat(stats(teamAId).getSum()).isEqualTo(32);
+        assertThat(teamAgeStatistics.reconcile()).isZero();
+    }
+
+    @Test
+    public void bulkUpdateKeepsServingLastValues() {
+        tx.executeWithoutResult(status -> memberTestRepository.bulkAgePlus(20));
+
+        try (StatementScope scope = StatementScope.open(false)) {
+            // 다시 읽는 동안 요청 스레드에서는 조회하지 않는다
+            assertThat(stats(teamAId).getCount()).isEqualTo(2);
+            assertThat(scope.getStatementCount()).isZero();
+        }
+    }
+
+    // 백그라운드에서 다시 읽을 때까지
+    private TeamStatsDto awaitStats(Long teamId, Predicate<TeamStatsDto> reloaded) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        TeamStatsDto stats = stats(teamId);
+        while (!reloaded.test(stats) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            stats = stats(teamId);
+        }
+        return stats;
+    }
+
+    private TeamStatsDto stats(Long teamId) {
+        return teamAgeStatistics.getStats().stream()
+                .filter(stats -> stats.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+}